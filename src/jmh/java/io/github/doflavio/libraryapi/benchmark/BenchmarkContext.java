@@ -0,0 +1,27 @@
+package io.github.doflavio.libraryapi.benchmark;
+
+import io.github.doflavio.libraryapi.LibraryApiApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Sobe a aplicação numa porta aleatória, contra um H2 em memória exclusivo do benchmark.
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(LibraryApiApplication.class)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "server.port=0",
+                        "spring.boot.admin.client.enabled=false",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "logging.file.name=",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+    }
+}
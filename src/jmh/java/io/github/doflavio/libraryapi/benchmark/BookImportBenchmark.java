@@ -0,0 +1,76 @@
+package io.github.doflavio.libraryapi.benchmark;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.service.BookImportResult;
+import io.github.doflavio.libraryapi.service.BookImportService;
+import io.github.doflavio.libraryapi.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compara a importação em lote com o cadastro livro a livro pelo BookService.
+ * Cada chamada grava isbns novos, então o resultado em ms/op dividido por {@code books} dá o custo por livro.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BookImportBenchmark {
+
+    @Param({"10000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+    private BookImportService importService;
+    private BookService bookService;
+    private long run;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        importService = context.getBean(BookImportService.class);
+        bookService = context.getBean(BookService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookImportResult> importBooks() {
+        String prefix = "import-" + (run++) + "-";
+        return importService.importBooks(IntStream.range(0, books).mapToObj(i -> createBook(prefix + i)));
+    }
+
+    @Benchmark
+    public long saveOneByOne() {
+        String prefix = "save-" + (run++) + "-";
+        long saved = 0;
+        for (int i = 0; i < books; i++) {
+            saved += bookService.save(createBook(prefix + i)).getId() > 0 ? 1 : 0;
+        }
+        return saved;
+    }
+
+    private Book createBook(String isbn) {
+        return Book.builder().isbn(isbn).title("As aventuras " + isbn).author("Fulano").build();
+    }
+}
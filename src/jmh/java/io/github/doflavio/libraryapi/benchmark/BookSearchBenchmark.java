@@ -0,0 +1,86 @@
+package io.github.doflavio.libraryapi.benchmark;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.service.BookImportService;
+import io.github.doflavio.libraryapi.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Busca textual no índice Lucene contra a busca por prefixo via ExampleMatcher, com o catálogo inteiro carregado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BookSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "Memórias", "Aventuras", "Histórias", "Coração", "Sertão", "Cidade", "Mar", "Noite",
+            "Viagem", "Canção", "Estação", "Jardim", "Ilusões", "Caminhos", "Irmãos", "Verão"
+    };
+    private static final String[] AUTHORS = {
+            "Machado de Assis", "Clarice Lispector", "Graciliano Ramos", "Cecília Meireles",
+            "Jorge Amado", "Rachel de Queiroz", "João Guimarães Rosa", "Lygia Fagundes Telles"
+    };
+
+    @Param({"1000000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+    private BookService service;
+    private PageRequest firstPage;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        service = context.getBean(BookService.class);
+        firstPage = PageRequest.of(0, 20);
+
+        context.getBean(BookImportService.class).importBooks(IntStream.range(0, books).mapToObj(i -> Book.builder()
+                .isbn("isbn-" + i)
+                .title(WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i)
+                .author(AUTHORS[(i / 7) % AUTHORS.length])
+                .build()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Book> searchOneWord() {
+        return service.search("aventuras", 20);
+    }
+
+    @Benchmark
+    public List<Book> searchWordsAndPrefix() {
+        return service.search("memorias machado cora", 20);
+    }
+
+    @Benchmark
+    public List<Book> searchIsbn() {
+        return service.search("isbn-765432", 20);
+    }
+
+    @Benchmark
+    public Page<Book> exampleTitlePrefix() {
+        return service.find(Book.builder().title("aventuras").build(), firstPage);
+    }
+}
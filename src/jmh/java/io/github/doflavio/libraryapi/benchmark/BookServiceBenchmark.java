@@ -0,0 +1,79 @@
+package io.github.doflavio.libraryapi.benchmark;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.repository.BookRepository;
+import io.github.doflavio.libraryapi.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookServiceBenchmark {
+
+    @Param({"10000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+    private BookService service;
+    private PageRequest pageRequest;
+    private Long bookId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        service = context.getBean(BookService.class);
+        pageRequest = PageRequest.of(0, 20);
+
+        List<Book> catalogue = new ArrayList<>();
+        for (int i = 0; i < books; i++) {
+            catalogue.add(Book.builder()
+                    .isbn("isbn-" + i)
+                    .title((i % 2 == 0 ? "As aventuras " : "Memórias ") + i)
+                    .author("Autor " + (i % 100))
+                    .build());
+        }
+        context.getBean(BookRepository.class).saveAll(catalogue);
+        bookId = catalogue.get(books / 2).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Book> findByTitlePrefix() {
+        return service.find(Book.builder().title("as aven").build(), pageRequest);
+    }
+
+    @Benchmark
+    public Page<Book> findByTitleAndAuthorPrefix() {
+        return service.find(Book.builder().title("mem").author("autor 1").build(), pageRequest);
+    }
+
+    @Benchmark
+    public Optional<Book> getById() {
+        return service.getById(bookId);
+    }
+
+    @Benchmark
+    public Optional<Book> getBookByIsbn() {
+        return service.getBookByIsbn("isbn-" + books / 2);
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.doflavio.libraryapi.benchmark;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
+import io.github.doflavio.libraryapi.model.repository.BookRepository;
+import io.github.doflavio.libraryapi.model.repository.LoanRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência das consultas quentes com 1M+ livros e empréstimos, com e sem os índices da V2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class IndexedQueryBenchmark {
+
+    private static final int BATCH = 10_000;
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"true", "false"})
+    private boolean indexes;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private LoanRepository loanRepository;
+    private PageRequest firstPage;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookRepository = context.getBean(BookRepository.class);
+        loanRepository = context.getBean(LoanRepository.class);
+        firstPage = PageRequest.of(0, 20);
+        LocalDate today = LocalDate.now();
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        if (!indexes) {
+            jdbc.execute("drop index uk_book_isbn");
+            jdbc.execute("drop index idx_loan_customer");
+            jdbc.execute("drop index idx_loan_book_returned");
+        }
+
+        for (int from = 1; from <= rows; from += BATCH) {
+            List<Object[]> books = new ArrayList<>();
+            List<Object[]> loans = new ArrayList<>();
+            for (int id = from; id < from + BATCH && id <= rows; id++) {
+                books.add(new Object[]{id, "Titulo " + id, "Autor " + (id % 1000), "isbn-" + id});
+                // um empréstimo por livro, ~10% em aberto e parte deles atrasados
+                loans.add(new Object[]{id, "cliente-" + (id % 50_000), "cliente" + id + "@email.com", id,
+                        Date.valueOf(today.minusDays(id % 30)), Date.valueOf(today.minusDays(id % 30 - 3)), id % 10 != 0});
+            }
+            jdbc.batchUpdate("insert into book (id, title, author, isbn) values (?, ?, ?, ?)", books);
+            jdbc.batchUpdate("insert into loan (id, customer, customer_email, id_book, loan_date, due_date, returned) "
+                    + "values (?, ?, ?, ?, ?, ?, ?)", loans);
+        }
+        jdbc.execute("analyze");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean existsByIsbn() {
+        return bookRepository.existsByIsbn("isbn-" + randomId());
+    }
+
+    @Benchmark
+    public Optional<Book> findByIsbn() {
+        return bookRepository.findByIsbn("isbn-" + randomId());
+    }
+
+    @Benchmark
+    public boolean existsByBookAndNotReturned() {
+        return loanRepository.existsByBookAndNotReturned(Book.builder().id((long) randomId()).build());
+    }
+
+    @Benchmark
+    public Page<LoanSummary> findSummariesByCustomer() {
+        return loanRepository.findSummariesByBookIsbnOrCustomer(
+                "isbn-" + randomId(), "cliente-" + (randomId() % 50_000), firstPage);
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, rows + 1);
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.doflavio.libraryapi.benchmark;
+
+import io.github.doflavio.libraryapi.api.dto.LoanDTO;
+import io.github.doflavio.libraryapi.api.dto.LoanFilterDTO;
+import io.github.doflavio.libraryapi.api.resource.LoanController;
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.repository.BookRepository;
+import io.github.doflavio.libraryapi.model.repository.LoanRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoanControllerBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private LoanController controller;
+    private LoanFilterDTO filter;
+    private PageRequest pageRequest;
+    private String etag;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        controller = context.getBean(LoanController.class);
+        filter = LoanFilterDTO.builder().customer("Fulano").isbn("none").build();
+        pageRequest = PageRequest.of(0, pageSize);
+
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            books.add(Book.builder().isbn("isbn-" + i).title("Titulo " + i).author("Autor").build());
+        }
+        books = context.getBean(BookRepository.class).saveAll(books);
+
+        List<Loan> loans = new ArrayList<>();
+        for (Book book : books) {
+            loans.add(Loan.builder().book(book).customer("Fulano").loanDate(LocalDate.now()).build());
+        }
+        context.getBean(LoanRepository.class).saveAll(loans);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.find(filter, pageRequest, new ServletWebRequest(new MockHttpServletRequest("GET", "/api/loans"), response));
+        etag = response.getHeader(HttpHeaders.ETAG);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<LoanDTO> findPage() {
+        return controller.find(filter, pageRequest,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/api/loans"), new MockHttpServletResponse()));
+    }
+
+    @Benchmark
+    public Page<LoanDTO> findPageNotModified() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/loans");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        return controller.find(filter, pageRequest, new ServletWebRequest(request, new MockHttpServletResponse()));
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.doflavio.libraryapi.benchmark;
+
+import io.github.doflavio.libraryapi.exception.BusinessException;
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.repository.BookRepository;
+import io.github.doflavio.libraryapi.model.repository.LoanRepository;
+import io.github.doflavio.libraryapi.service.LoanService;
+import io.github.doflavio.libraryapi.service.cache.OpenLoanIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoanServiceBenchmark {
+
+    @Param({"10000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+    private LoanService service;
+    private JdbcTemplate jdbcTemplate;
+    private LoanRepository loanRepository;
+    private OpenLoanIndex openLoanIndex;
+    private List<Book> catalogue;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        service = context.getBean(LoanService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        loanRepository = context.getBean(LoanRepository.class);
+        openLoanIndex = context.getBean(OpenLoanIndex.class);
+
+        catalogue = new ArrayList<>();
+        for (int i = 0; i < books; i++) {
+            catalogue.add(Book.builder().isbn("isbn-" + i).title("Titulo " + i).author("Autor").build());
+        }
+        catalogue = context.getBean(BookRepository.class).saveAll(catalogue);
+    }
+
+    @Setup(Level.Iteration)
+    public void returnAllBooks() {
+        jdbcTemplate.update("update loan set returned = true");
+        openLoanIndex.rebuild(loanRepository::forEachOpenBookId);
+        next = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object saveLoan() {
+        Book book = catalogue.get(next++ % catalogue.size());
+        Loan loan = Loan.builder()
+                .book(book)
+                .customer("Fulano")
+                .customerEmail("fulano@email.com")
+                .loanDate(LocalDate.now())
+                .build();
+        try {
+            return service.save(loan);
+        } catch (BusinessException e) {
+            // a iteração deu a volta no catálogo: mede o caminho de rejeição
+            return e;
+        }
+    }
+
+    @Benchmark
+    public boolean availabilityFromIndex() {
+        return service.isBookAvailable(catalogue.get(next++ % catalogue.size()).getId());
+    }
+
+    @Benchmark
+    public boolean availabilityFromCountQuery() {
+        return !loanRepository.existsByBookAndNotReturned(catalogue.get(next++ % catalogue.size()));
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.doflavio.libraryapi.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import io.github.doflavio.libraryapi.api.CorrelationIdFilter;
+import io.github.doflavio.libraryapi.config.LogSamplingFilter;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Vazão das threads de requisição logando como o BookController num GET, com 4 threads disputando o appender:
+ * sync é o padrão do Boot (texto, arquivo escrito na própria thread); async e asyncSampled usam a configuração do
+ * logback-spring.xml (JSON atrás do AsyncAppender), a segunda com a amostragem de leituras ligada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class LoggingBenchmark {
+
+    @Param({"sync", "async", "asyncSampled"})
+    private String mode;
+
+    private LoggerContext context;
+    private Logger log;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("logging-benchmark");
+        context = new LoggerContext();
+
+        Appender<ILoggingEvent> appender;
+        if ("sync".equals(mode)) {
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} %5p --- [%t] %-40.40logger{39} : %m%n");
+            appender = file(encoder);
+        } else {
+            LogstashEncoder encoder = new LogstashEncoder();
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(0);
+            async.setNeverBlock(true);
+            async.addAppender(file(encoder));
+            async.start();
+            appender = async;
+        }
+        if ("asyncSampled".equals(mode)) {
+            LogSamplingFilter sampling = new LogSamplingFilter();
+            sampling.setContext(context);
+            sampling.setLogger("io.github.doflavio.libraryapi.api");
+            sampling.setRate(10);
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        log = context.getLogger("io.github.doflavio.libraryapi.api.resource.BookController");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.stop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void getBookLog(RequestState request) {
+        log.info(" Obtaining details for book id : {} ", request.id);
+    }
+
+    private FileAppender<ILoggingEvent> file(Encoder<ILoggingEvent> encoder) {
+        encoder.setContext(context);
+        encoder.start();
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(directory.resolve("appfile.log").toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    @State(Scope.Thread)
+    public static class RequestState {
+
+        long id;
+
+        @Setup
+        public void setUp() {
+            // o filtro de correlação roda antes do controller, na mesma thread
+            MDC.put(CorrelationIdFilter.CORRELATION_ID, UUID.randomUUID().toString());
+            MDC.put(CorrelationIdFilter.HTTP_METHOD, "GET");
+            id = Thread.currentThread().getId();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.doflavio.libraryapi.benchmark;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import io.github.doflavio.libraryapi.service.MailDispatchReport;
+import io.github.doflavio.libraryapi.service.impl.EmailServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Mensagens por segundo entregues a um SMTP local (GreenMail), uma por destinatário: sequential manda uma de cada
+ * vez na thread do agendamento; batched é o EmailServiceImpl, em lotes por conexão num pool de workers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+public class MailDispatchBenchmark {
+
+    private static final int RECIPIENTS = 200;
+    private static final String MESSAGE = "Devolva o livro";
+
+    private GreenMail greenMail;
+    private JavaMailSenderImpl sender;
+    private EmailServiceImpl service;
+    private List<String> mails;
+
+    @Setup
+    public void setUp() {
+        ServerSetup smtp = new ServerSetup(3125, "localhost", ServerSetup.PROTOCOL_SMTP);
+        greenMail = new GreenMail(smtp);
+        greenMail.start();
+
+        sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(smtp.getPort());
+        sender.getJavaMailProperties().setProperty("mail.smtp.localhost", "localhost");
+
+        // mesmos valores do application.properties
+        service = new EmailServiceImpl(sender, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "remetent", "mail@library-api.com");
+        ReflectionTestUtils.setField(service, "batchSize", 50);
+        ReflectionTestUtils.setField(service, "workers", 4);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "retryBackoffMillis", 500L);
+        service.init();
+
+        mails = IntStream.range(0, RECIPIENTS)
+                .mapToObj(i -> "customer" + i + "@email.com")
+                .collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Iteration)
+    public void purge() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+        greenMail.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECIPIENTS)
+    public int sequential() {
+        for (String mail : mails) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom("mail@library-api.com");
+            message.setSubject("Livro com empréstimo atrasado");
+            message.setText(MESSAGE);
+            message.setTo(mail);
+            sender.send(message);
+        }
+        return mails.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECIPIENTS)
+    public MailDispatchReport batched() {
+        return service.sendMails(MESSAGE, mails);
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.doflavio.libraryapi.benchmark;
+
+import io.github.doflavio.libraryapi.api.dto.BookDTO;
+import io.github.doflavio.libraryapi.api.dto.LoanDTO;
+import io.github.doflavio.libraryapi.api.mapper.BookMapper;
+import io.github.doflavio.libraryapi.api.mapper.LoanMapper;
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private BookMapper bookMapper;
+    private LoanMapper loanMapper;
+    private Book book;
+    private Loan loan;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        bookMapper = Mappers.getMapper(BookMapper.class);
+        loanMapper = Mappers.getMapper(LoanMapper.class);
+        book = Book.builder().id(1l).isbn("123").title("As aventuras").author("Fulano").build();
+        loan = Loan.builder().id(1l).book(book).customer("Fulano")
+                .customerEmail("fulano@email.com").loanDate(LocalDate.now()).build();
+    }
+
+    @Benchmark
+    public BookDTO modelMapperBookToDto() {
+        return modelMapper.map(book, BookDTO.class);
+    }
+
+    @Benchmark
+    public BookDTO generatedBookToDto() {
+        return bookMapper.toDto(book);
+    }
+
+    @Benchmark
+    public LoanDTO modelMapperLoanToDto() {
+        // como os controllers faziam: o livro era mapeado à parte
+        LoanDTO dto = modelMapper.map(loan, LoanDTO.class);
+        dto.setBook(modelMapper.map(loan.getBook(), BookDTO.class));
+        return dto;
+    }
+
+    @Benchmark
+    public LoanDTO generatedLoanToDto() {
+        return loanMapper.toDto(loan);
+    }
+}
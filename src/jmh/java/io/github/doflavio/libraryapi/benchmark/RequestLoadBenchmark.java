@@ -0,0 +1,118 @@
+package io.github.doflavio.libraryapi.benchmark;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.service.BookImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Rajadas de requisições simultâneas contra o Tomcat (pool de threads padrão ou virtual threads) e contra o
+ * perfil reactive (WebFlux sobre Netty com R2DBC).
+ *
+ * Cada invocação dispara {@code clients} GETs ao mesmo tempo e espera todos; o p50/p99 das latências de cada
+ * rajada é impresso ao fim da iteração. Virtual threads exigem rodar o fork num JDK 21+:
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="RequestLoad -jvm /caminho/jdk-21/bin/java"
+ * ou, sem elas: -Djmh.args="RequestLoad -p stack=platform,reactive"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RequestLoadBenchmark {
+
+    @Param({"platform", "virtual", "reactive"})
+    private String stack;
+
+    @Param({"5000"})
+    private int clients;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+    private long[] latencies;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.profiles.active=" + ("reactive".equals(stack) ? "reactive" : "default"),
+                "application.web.virtual-threads=" + "virtual".equals(stack),
+                "server.tomcat.accept-count=" + clients);
+        context.getBean(BookImportService.class).importBooks(IntStream.range(0, 10000).mapToObj(i -> Book.builder()
+                .isbn("isbn-" + i)
+                .title((i % 2 == 0 ? "As aventuras " : "Memórias ") + i)
+                .author("Autor " + (i % 100))
+                .build()));
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        // a busca por prefixo não passa pelos caches: cada requisição vai ao banco (JDBC ou R2DBC)
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/books?title=mem&page=0&size=20"))
+                .timeout(Duration.ofMinutes(2))
+                .build();
+        latencies = new long[clients];
+    }
+
+    @TearDown(Level.Iteration)
+    public void printLatencies() {
+        Arrays.sort(latencies);
+        System.out.printf("  stack=%s failures=%d p50=%.1f ms p99=%.1f ms max=%.1f ms%n",
+                stack, failures.getAndSet(0),
+                millis(latencies[latencies.length / 2]),
+                millis(latencies[(int) Math.ceil(latencies.length * 0.99) - 1]),
+                millis(latencies[latencies.length - 1]));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void burst() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            int slot = i;
+            long start = System.nanoTime();
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        latencies[slot] = System.nanoTime() - start;
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
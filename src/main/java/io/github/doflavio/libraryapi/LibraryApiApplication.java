@@ -1,6 +1,9 @@
 package io.github.doflavio.libraryapi;
 
-import org.modelmapper.ModelMapper;
+import io.github.doflavio.libraryapi.api.mapper.BookMapper;
+import io.github.doflavio.libraryapi.api.mapper.CustomerMapper;
+import io.github.doflavio.libraryapi.api.mapper.LoanMapper;
+import org.mapstruct.factory.Mappers;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
@@ -13,8 +16,18 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 public class LibraryApiApplication {
 
 	@Bean
-	public ModelMapper modelMapper() {
-		return new ModelMapper();
+	public BookMapper bookMapper() {
+		return Mappers.getMapper(BookMapper.class);
+	}
+
+	@Bean
+	public LoanMapper loanMapper() {
+		return Mappers.getMapper(LoanMapper.class);
+	}
+
+	@Bean
+	public CustomerMapper customerMapper() {
+		return Mappers.getMapper(CustomerMapper.class);
 	}
 
 	public static void main(String[] args) {
@@ -2,6 +2,8 @@ package io.github.doflavio.libraryapi.api;
 
 import io.github.doflavio.libraryapi.api.exception.ApiErros;
 import io.github.doflavio.libraryapi.exception.BusinessException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -16,6 +18,7 @@ import org.springframework.web.server.ResponseStatusException;
 import java.util.List;
 
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ApplicationControllerAdvice {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -37,5 +40,12 @@ public class ApplicationControllerAdvice {
         return new ResponseEntity(new ApiErros(ex),ex.getStatus());
     }
 
+    // a linha mudou entre a leitura e o update (@Version)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ApiErros handleOptimisticLockingFailure(OptimisticLockingFailureException ex){
+        return new ApiErros(new BusinessException("Resource was changed by another request"));
+    }
+
 
 }
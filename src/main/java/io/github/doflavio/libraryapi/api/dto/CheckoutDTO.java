@@ -0,0 +1,26 @@
+package io.github.doflavio.libraryapi.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CheckoutDTO {
+
+    // um lote do application.loans.batch-size por requisição
+    public static final int MAX_LOANS = 1000;
+
+    @NotEmpty
+    @Size(max = MAX_LOANS)
+    @Valid
+    private List<CheckoutLoanDTO> loans;
+}
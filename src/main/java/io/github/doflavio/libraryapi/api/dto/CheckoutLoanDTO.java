@@ -0,0 +1,23 @@
+package io.github.doflavio.libraryapi.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutLoanDTO {
+
+    @NotEmpty
+    private String isbn;
+
+    @NotEmpty
+    private String customer;
+
+    private String email;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.NotEmpty;
+import java.time.LocalDate;
 
 @Data
 @Builder
@@ -24,4 +25,6 @@ public class LoanDTO {
     @NotEmpty
     private String email;
     private BookDTO book;
+
+    private LocalDate dueDate;
 }
@@ -0,0 +1,17 @@
+package io.github.doflavio.libraryapi.api.mapper;
+
+import io.github.doflavio.libraryapi.api.dto.BookDTO;
+import io.github.doflavio.libraryapi.model.entity.Book;
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(builder = @Builder(disableBuilder = true))
+public interface BookMapper {
+
+    BookDTO toDto(Book book);
+
+    @Mapping(target = "loans", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Book toEntity(BookDTO dto);
+}
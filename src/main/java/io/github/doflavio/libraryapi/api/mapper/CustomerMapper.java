@@ -0,0 +1,12 @@
+package io.github.doflavio.libraryapi.api.mapper;
+
+import io.github.doflavio.libraryapi.api.dto.CustomerDTO;
+import io.github.doflavio.libraryapi.model.entity.Customer;
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+
+@Mapper(builder = @Builder(disableBuilder = true))
+public interface CustomerMapper {
+
+    CustomerDTO toDto(Customer customer);
+}
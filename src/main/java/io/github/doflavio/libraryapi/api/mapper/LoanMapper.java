@@ -0,0 +1,48 @@
+package io.github.doflavio.libraryapi.api.mapper;
+
+import io.github.doflavio.libraryapi.api.dto.CheckoutLoanDTO;
+import io.github.doflavio.libraryapi.api.dto.LoanDTO;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(uses = BookMapper.class, builder = @Builder(disableBuilder = true))
+public interface LoanMapper {
+
+    @Mapping(source = "book.isbn", target = "isbn")
+    @Mapping(source = "customerEmail", target = "email")
+    LoanDTO toDto(Loan loan);
+
+    @Mapping(source = "bookIsbn", target = "isbn")
+    @Mapping(source = "customerEmail", target = "email")
+    @Mapping(source = "bookId", target = "book.id")
+    @Mapping(source = "bookIsbn", target = "book.isbn")
+    @Mapping(source = "bookTitle", target = "book.title")
+    @Mapping(source = "bookAuthor", target = "book.author")
+    @Mapping(target = "dueDate", ignore = true)
+    LoanDTO toDto(LoanSummary summary);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "book", ignore = true)
+    @Mapping(target = "customerId", ignore = true)
+    @Mapping(target = "loanDate", ignore = true)
+    @Mapping(target = "dueDate", ignore = true)
+    @Mapping(target = "renewals", ignore = true)
+    @Mapping(target = "returned", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(source = "email", target = "customerEmail")
+    Loan toEntity(LoanDTO dto);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "book", ignore = true)
+    @Mapping(target = "customerId", ignore = true)
+    @Mapping(target = "loanDate", ignore = true)
+    @Mapping(target = "dueDate", ignore = true)
+    @Mapping(target = "renewals", ignore = true)
+    @Mapping(target = "returned", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(source = "email", target = "customerEmail")
+    Loan toEntity(CheckoutLoanDTO dto);
+}
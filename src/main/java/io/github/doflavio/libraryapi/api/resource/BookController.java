@@ -1,13 +1,18 @@
 package io.github.doflavio.libraryapi.api.resource;
 
+import io.github.doflavio.libraryapi.api.dto.BookAvailabilityDTO;
 import io.github.doflavio.libraryapi.api.dto.BookDTO;
+import io.github.doflavio.libraryapi.api.dto.CursorPageDTO;
 import io.github.doflavio.libraryapi.api.dto.LoanDTO;
 import io.github.doflavio.libraryapi.api.exception.ApiErros;
+import io.github.doflavio.libraryapi.api.mapper.BookMapper;
+import io.github.doflavio.libraryapi.api.mapper.LoanMapper;
 import io.github.doflavio.libraryapi.exception.BusinessException;
 import io.github.doflavio.libraryapi.model.entity.Book;
-import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
 import io.github.doflavio.libraryapi.service.BookService;
 import io.github.doflavio.libraryapi.service.LoanService;
+import io.github.doflavio.libraryapi.service.search.Suggestion;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
@@ -15,74 +20,127 @@ import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
 
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/books")
 @RequiredArgsConstructor
 @Api("Book API")
 @Slf4j
 public class BookController {
 
+    private static final int MAX_AVAILABILITY_IDS = 100;
+    private static final int MAX_SEARCH_SIZE = 100;
+
     private final BookService service;
-    private final ModelMapper modelMapper;
+    private final BookMapper bookMapper;
+    private final LoanMapper loanMapper;
     private final LoanService loanService;
 
     /* com a anotation @RequiredArgsConstructor não necessita a criação do construtor
-    public BookController(BookService service,ModelMapper modelMapper,LoanService loanService) {
+    public BookController(BookService service,BookMapper bookMapper,LoanMapper loanMapper,LoanService loanService) {
         this.service = service;
-        this.modelMapper = modelMapper;
+        this.bookMapper = bookMapper;
+        this.loanMapper = loanMapper;
         this.loanService = loanService;
     }
     */
 
     @GetMapping("{id}")
     @ApiOperation("Obtains a book details by id")
-    public BookDTO get(@PathVariable Long id) {
+    public BookDTO get(@PathVariable Long id, WebRequest request) {
 
         log.info(" Obtaining details for book id : {} ", id);
 
-        return service.getById(id).map(
-            book -> modelMapper.map(book, BookDTO.class)
-        ).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        Book book = service.getById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (request.checkNotModified(ETags.of(book.getId(), book.getVersion()))) {
+            return null;
+        }
+        return bookMapper.toDto(book);
     }
 
     @GetMapping
     @ApiOperation("Find books by paramns")
-    public Page<BookDTO> find(BookDTO dto, Pageable pageRequest){
-        Book filter = modelMapper.map(dto,Book.class);
+    public Page<BookDTO> find(BookDTO dto, Pageable pageRequest, WebRequest request){
+        Book filter = bookMapper.toEntity(dto);
         Page<Book> result = service.find(filter,pageRequest);
+        if (request.checkNotModified(ETags.of(result, ETags::bookVersion))) {
+            return null;
+        }
         List<BookDTO> list = result.getContent().stream()
-                .map(entity -> modelMapper.map(entity, BookDTO.class))
+                .map(bookMapper::toDto)
                 .collect(Collectors.toList());
 
         return new PageImpl<>(list, pageRequest, result.getTotalElements());
 
     }
 
+    @GetMapping(params = "cursor")
+    @ApiOperation("Find books by paramns without counting the total, continuing from a cursor")
+    public CursorPageDTO<BookDTO> findAfter(BookDTO dto,
+                                            @RequestParam String cursor,
+                                            @RequestParam(defaultValue = "20") int size){
+        Book filter = bookMapper.toEntity(dto);
+        Slice<Book> result = service.findAfter(filter, Cursors.decode(cursor), Cursors.size(size));
+        List<BookDTO> list = result.getContent().stream()
+                .map(bookMapper::toDto)
+                .collect(Collectors.toList());
+
+        return Cursors.page(result, list, BookDTO::getId);
+    }
+
+    @GetMapping("search")
+    @ApiOperation("Full-text search over title, author and isbn, ranked by relevance")
+    public List<BookDTO> search(@RequestParam("q") String text,
+                                @RequestParam(defaultValue = "20") int size){
+        if (size < 1 || size > MAX_SEARCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_SEARCH_SIZE);
+        }
+        return service.search(text, size).stream()
+                .map(bookMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @GetMapping("suggestions")
+    @ApiOperation("Typeahead suggestions of titles and authors starting with the given prefix")
+    public List<Suggestion> suggest(@RequestParam("q") String prefix,
+                                    @RequestParam(defaultValue = "10") int size){
+        if (size < 1 || size > MAX_SEARCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_SEARCH_SIZE);
+        }
+        return service.suggest(prefix, size);
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     @ApiOperation("Creates a book")
     public BookDTO create(@RequestBody @Valid BookDTO dto) {
         log.info(" creating a book for isbn: {} ",dto.getIsbn());
 
-        Book entity = modelMapper.map(dto,Book.class);
+        Book entity = bookMapper.toEntity(dto);
         entity = service.save(entity);
 
-        return modelMapper.map(entity,BookDTO.class);
+        return bookMapper.toDto(entity);
     }
 
     @DeleteMapping("{id}")
@@ -101,29 +159,62 @@ public class BookController {
 
     @PutMapping("{id}")
     @ApiOperation("Updates a book")
-    public BookDTO update(@PathVariable Long id, @RequestBody @Valid BookDTO dto){
+    @ApiResponses({
+                @ApiResponse(code = 412, message = "If-Match does not match the current version of the book")
+    })
+    public ResponseEntity<BookDTO> update(@PathVariable Long id, @RequestBody @Valid BookDTO dto,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         log.info(" updating book of id: {} ",dto.getIsbn());
 
-        return service.getById(id).map( book -> {
-                    book.setAuthor(dto.getAuthor());
-                    book.setTitle(dto.getTitle());
-                    book = service.update(book);
-                    return modelMapper.map(book,BookDTO.class);
-        }).orElseThrow( () -> new ResponseStatusException(HttpStatus.NOT_FOUND) );
+        Book book = service.getById(id).orElseThrow( () -> new ResponseStatusException(HttpStatus.NOT_FOUND) );
+        if (!ETags.matches(ifMatch, ETags.of(book.getId(), book.getVersion()))) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Book was changed by another request");
+        }
+        book.setAuthor(dto.getAuthor());
+        book.setTitle(dto.getTitle());
+        book = service.update(book);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(book.getId(), book.getVersion()))
+                .body(bookMapper.toDto(book));
+    }
+
+    @GetMapping("{id}/availability")
+    @ApiOperation("Tells whether a book has no open loan, answered from the in-memory open loan index")
+    public BookAvailabilityDTO availability(@PathVariable Long id){
+        if (service.getExistingIds(Collections.singletonList(id)).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        return new BookAvailabilityDTO(id, loanService.isBookAvailable(id));
+    }
+
+    @GetMapping("availability")
+    @ApiOperation("Tells whether each of the books has no open loan, answered from the in-memory open loan index")
+    public List<BookAvailabilityDTO> availability(@RequestParam List<Long> ids){
+        if (ids.size() > MAX_AVAILABILITY_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_AVAILABILITY_IDS + " ids per request");
+        }
+        // o índice não sabe se o livro existe: um id desconhecido apareceria como disponível
+        Set<Long> existing = service.getExistingIds(ids);
+        List<Long> unknown = ids.stream().filter(id -> !existing.contains(id)).collect(Collectors.toList());
+        if (!unknown.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Books not found: " + unknown);
+        }
+        return ids.stream()
+                .map(id -> new BookAvailabilityDTO(id, loanService.isBookAvailable(id)))
+                .collect(Collectors.toList());
     }
 
     @GetMapping("{id}/loans")
-    public Page<LoanDTO> loansByBook(@PathVariable Long id, Pageable pageable){
+    public Page<LoanDTO> loansByBook(@PathVariable Long id, Pageable pageable, WebRequest request){
         Book book = service.getById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        Page<Loan> result = loanService.getLoansByBook(book,pageable);
+        Page<LoanSummary> result = loanService.getLoanSummariesByBook(book.getId(),pageable);
+        if (request.checkNotModified(ETags.of(result, ETags::loanVersion))) {
+            return null;
+        }
         List<LoanDTO> list = result.getContent().stream()
-                .map(loan -> {
-                    Book loanBook = loan.getBook();
-                    BookDTO bookDTO = modelMapper.map(loanBook, BookDTO.class);
-                    LoanDTO loanDTO = modelMapper.map(loan, LoanDTO.class);
-                    loanDTO.setBook(bookDTO);
-                    return loanDTO;
-                }).collect(Collectors.toList());
+                .map(loanMapper::toDto)
+                .collect(Collectors.toList());
 
         return new PageImpl<LoanDTO>(list,pageable,result.getTotalElements());
     }
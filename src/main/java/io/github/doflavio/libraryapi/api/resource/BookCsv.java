@@ -0,0 +1,79 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import io.github.doflavio.libraryapi.api.dto.BookDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class BookCsv {
+
+    private static final String[] COLUMNS = {"title", "author", "isbn"};
+
+    private BookCsv() {
+    }
+
+    /**
+     * Lê o cabeçalho e devolve a posição de cada coluna do livro.
+     */
+    static Map<String, Integer> columns(String header) {
+        if (header == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header must contain title, author and isbn");
+        }
+        List<String> names = split(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (String column : COLUMNS) {
+            int index = names.indexOf(column);
+            if (index < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header must contain title, author and isbn");
+            }
+            columns.put(column, index);
+        }
+        return columns;
+    }
+
+    static BookDTO read(String line, Map<String, Integer> columns) {
+        List<String> fields = split(line);
+        return BookDTO.builder()
+                .title(field(fields, columns.get("title")))
+                .author(field(fields, columns.get("author")))
+                .isbn(field(fields, columns.get("isbn")))
+                .build();
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index).trim() : null;
+    }
+
+    // RFC 4180: campos entre aspas podem conter vírgulas e aspas duplicadas ("")
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import io.github.doflavio.libraryapi.api.dto.BookDTO;
+import io.github.doflavio.libraryapi.api.mapper.BookMapper;
+import io.github.doflavio.libraryapi.api.mapper.LoanMapper;
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.service.ReactiveBookService;
+import io.github.doflavio.libraryapi.service.ReactiveLoanService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindException;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+
+/**
+ * Rotas /api/books do perfil reactive, com as mesmas respostas e ETags do {@link BookController}.
+ */
+@Component
+@Profile("reactive")
+public class BookHandler {
+
+    private final ReactiveBookService service;
+    private final ReactiveLoanService loanService;
+    private final BookMapper bookMapper;
+    private final LoanMapper loanMapper;
+    private final SpringValidatorAdapter validator;
+
+    public BookHandler(ReactiveBookService service, ReactiveLoanService loanService, BookMapper bookMapper,
+                       LoanMapper loanMapper, Validator validator) {
+        this.service = service;
+        this.loanService = loanService;
+        this.bookMapper = bookMapper;
+        this.loanMapper = loanMapper;
+        this.validator = new SpringValidatorAdapter(validator);
+    }
+
+    public Mono<ServerResponse> get(ServerRequest request) {
+        // com o ETag no builder, um GET com If-None-Match igual vira 304
+        return book(request)
+                .flatMap(book -> ServerResponse.ok()
+                        .eTag(ETags.of(book.getId(), book.getVersion()))
+                        .bodyValue(bookMapper.toDto(book)));
+    }
+
+    public Mono<ServerResponse> find(ServerRequest request) {
+        Book filter = Book.builder()
+                .title(ServerRequests.param(request, "title"))
+                .author(ServerRequests.param(request, "author"))
+                .isbn(ServerRequests.param(request, "isbn"))
+                .build();
+        return service.find(filter, ServerRequests.pageable(request))
+                .flatMap(result -> ServerResponse.ok()
+                        .eTag(ETags.of(result, ETags::bookVersion))
+                        .bodyValue(result.map(bookMapper::toDto)));
+    }
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return body(request)
+                .flatMap(dto -> service.save(bookMapper.toEntity(dto)))
+                .flatMap(book -> ServerResponse.status(HttpStatus.CREATED).bodyValue(bookMapper.toDto(book)));
+    }
+
+    public Mono<ServerResponse> delete(ServerRequest request) {
+        return book(request)
+                .flatMap(service::delete)
+                .then(ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        String ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+        return body(request)
+                .zipWith(book(request), (dto, book) -> {
+                    if (!ETags.matches(ifMatch, ETags.of(book.getId(), book.getVersion()))) {
+                        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Book was changed by another request");
+                    }
+                    book.setAuthor(dto.getAuthor());
+                    book.setTitle(dto.getTitle());
+                    return book;
+                })
+                .flatMap(service::update)
+                .flatMap(book -> ServerResponse.ok()
+                        .eTag(ETags.of(book.getId(), book.getVersion()))
+                        .bodyValue(bookMapper.toDto(book)));
+    }
+
+    public Mono<ServerResponse> loansByBook(ServerRequest request) {
+        return book(request)
+                .flatMap(book -> loanService.getLoanSummariesByBook(book.getId(), ServerRequests.pageable(request)))
+                .flatMap(result -> ServerResponse.ok()
+                        .eTag(ETags.of(result, ETags::loanVersion))
+                        .bodyValue(result.map(loanMapper::toDto)));
+    }
+
+    private Mono<Book> book(ServerRequest request) {
+        return service.getById(ServerRequests.id(request))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+    }
+
+    private Mono<BookDTO> body(ServerRequest request) {
+        return request.bodyToMono(BookDTO.class)
+                .switchIfEmpty(Mono.error(new ServerWebInputException("Request body is missing")))
+                .flatMap(dto -> {
+                    BindException errors = new BindException(dto, "bookDTO");
+                    validator.validate(dto, errors);
+                    return errors.hasErrors() ? Mono.error(errors) : Mono.just(dto);
+                });
+    }
+}
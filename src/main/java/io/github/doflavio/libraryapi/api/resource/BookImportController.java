@@ -0,0 +1,90 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.doflavio.libraryapi.api.dto.BookDTO;
+import io.github.doflavio.libraryapi.api.mapper.BookMapper;
+import io.github.doflavio.libraryapi.service.BookImportResult;
+import io.github.doflavio.libraryapi.service.BookImportService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/books/import")
+@RequiredArgsConstructor
+@Api("Book import API")
+@Slf4j
+public class BookImportController {
+
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+    static final String TEXT_CSV = "text/csv";
+
+    private final BookImportService service;
+    private final BookMapper bookMapper;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ApiOperation("Imports a list of books, returning one result per book")
+    public List<BookImportResult> importJson(@RequestBody List<BookDTO> books) {
+        log.info(" importing {} books ", books.size());
+
+        return service.importBooks(books.stream().map(bookMapper::toEntity));
+    }
+
+    @PostMapping(consumes = APPLICATION_NDJSON)
+    @ApiOperation("Imports books streamed as one JSON object per line")
+    public List<BookImportResult> importNdjson(InputStream body) throws IOException {
+        log.info(" importing books from ndjson ");
+
+        try (BufferedReader reader = reader(body)) {
+            return service.importBooks(reader.lines()
+                    .filter(line -> !line.trim().isEmpty())
+                    .map(this::readJson)
+                    .map(bookMapper::toEntity));
+        }
+    }
+
+    @PostMapping(consumes = TEXT_CSV)
+    @ApiOperation("Imports books streamed as CSV with a title,author,isbn header")
+    public List<BookImportResult> importCsv(InputStream body) throws IOException {
+        log.info(" importing books from csv ");
+
+        try (BufferedReader reader = reader(body)) {
+            Map<String, Integer> columns = BookCsv.columns(reader.readLine());
+            return service.importBooks(reader.lines()
+                    .filter(line -> !line.trim().isEmpty())
+                    .map(line -> BookCsv.read(line, columns))
+                    .map(bookMapper::toEntity));
+        }
+    }
+
+    private BufferedReader reader(InputStream body) {
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    private BookDTO readJson(String line) {
+        try {
+            return objectMapper.readValue(line, BookDTO.class);
+        } catch (JsonProcessingException e) {
+            // linha ilegível segue como nula e volta como INVALID no resultado
+            return null;
+        }
+    }
+}
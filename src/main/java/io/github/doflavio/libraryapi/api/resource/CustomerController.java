@@ -0,0 +1,62 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import io.github.doflavio.libraryapi.api.dto.CursorPageDTO;
+import io.github.doflavio.libraryapi.api.dto.CustomerDTO;
+import io.github.doflavio.libraryapi.api.dto.LoanDTO;
+import io.github.doflavio.libraryapi.api.mapper.CustomerMapper;
+import io.github.doflavio.libraryapi.api.mapper.LoanMapper;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
+import io.github.doflavio.libraryapi.service.CustomerService;
+import io.github.doflavio.libraryapi.service.LoanService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/customers")
+@RequiredArgsConstructor
+public class CustomerController {
+
+    private final CustomerService customerService;
+    private final LoanService loanService;
+    private final CustomerMapper customerMapper;
+    private final LoanMapper loanMapper;
+
+    @GetMapping("{id}")
+    public CustomerDTO get(@PathVariable Long id){
+        return customerService.getById(id)
+                .map(customerMapper::toDto)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping(params = "email")
+    public CustomerDTO getByEmail(@RequestParam String email){
+        return customerService.getByEmail(email)
+                .map(customerMapper::toDto)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("{id}/loans")
+    public CursorPageDTO<LoanDTO> loans(@PathVariable Long id,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "20") int size){
+        int limit = Cursors.size(size);
+        customerService.getById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        Slice<LoanSummary> result = loanService.getLoanSummariesByCustomer(id, Cursors.decode(cursor), limit);
+        List<LoanDTO> loans = result.getContent().stream()
+                .map(loanMapper::toDto)
+                .collect(Collectors.toList());
+        return Cursors.page(result, loans, LoanDTO::getId);
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * ETags fortes montados a partir do id e da @Version das linhas, antes de qualquer mapeamento ou serialização.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Uma página muda quando muda a posição, o total ou a versão de qualquer linha dela.
+     */
+    static <T> String of(Page<T> page, Function<T, String> versionOf) {
+        StringBuilder versions = new StringBuilder()
+                .append(page.getPageable()).append('|')
+                .append(page.getTotalElements()).append('|');
+        for (T row : page.getContent()) {
+            versions.append(versionOf.apply(row)).append(',');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static String bookVersion(Book book) {
+        return book.getId() + ":" + book.getVersion();
+    }
+
+    // o empréstimo é exibido com os dados do livro, então a versão do livro também conta
+    static String loanVersion(LoanSummary loan) {
+        return loan.getId() + ":" + loan.getVersion() + ":" + loan.getBookId() + ":" + loan.getBookVersion();
+    }
+
+    /**
+     * Comparação forte do If-Match (RFC 7232): aceita "*" ou uma lista de ETags separados por vírgula.
+     */
+    static boolean matches(String ifMatch, String etag) {
+        if (ifMatch == null) {
+            return true;
+        }
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
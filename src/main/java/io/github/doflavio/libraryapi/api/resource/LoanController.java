@@ -1,35 +1,46 @@
 package io.github.doflavio.libraryapi.api.resource;
 
-import io.github.doflavio.libraryapi.api.dto.BookDTO;
+import io.github.doflavio.libraryapi.api.dto.CheckoutDTO;
+import io.github.doflavio.libraryapi.api.dto.CursorPageDTO;
 import io.github.doflavio.libraryapi.api.dto.LoanDTO;
 import io.github.doflavio.libraryapi.api.dto.LoanFilterDTO;
 import io.github.doflavio.libraryapi.api.dto.ReturnedLoanDTO;
+import io.github.doflavio.libraryapi.api.dto.ReturnedLoansDTO;
+import io.github.doflavio.libraryapi.api.mapper.LoanMapper;
 import io.github.doflavio.libraryapi.model.entity.Book;
 import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
 import io.github.doflavio.libraryapi.service.BookService;
+import io.github.doflavio.libraryapi.service.LoanBatchResult;
+import io.github.doflavio.libraryapi.service.LoanBatchService;
 import io.github.doflavio.libraryapi.service.LoanService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.validation.Valid;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/loans")
 @RequiredArgsConstructor
 public class LoanController {
 
     private final LoanService loanservice;
     private final BookService bookService;
-    private final ModelMapper modelMapper;
+    private final LoanMapper loanMapper;
+    private final LoanBatchService loanBatchService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -37,11 +48,9 @@ public class LoanController {
         Book book  = bookService.getBookByIsbn(dto.getIsbn()).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.BAD_REQUEST,"Book not found for passed isbn")
         );
-        Loan entity = Loan.builder()
-                .book(book)
-                .customer(dto.getCustomer())
-                .loanDate(LocalDate.now())
-                .build();
+        Loan entity = loanMapper.toEntity(dto);
+        entity.setBook(book);
+        entity.setLoanDate(LocalDate.now());
         entity = loanservice.save(entity);
         return entity.getId();
     }
@@ -53,19 +62,49 @@ public class LoanController {
         loanservice.update(loan);
     }
 
-    @GetMapping
-    public Page<LoanDTO> find(LoanFilterDTO dto, Pageable pageRequest){
-        Page<Loan> result = loanservice.find(dto, pageRequest);
-        List<LoanDTO> loans = result.getContent().stream()
-                .map(entity -> {
+    @PostMapping("{id}/renewals")
+    public LoanDTO renew(@PathVariable Long id){
+        Loan loan = loanservice.getById(id).orElseThrow( ()-> new ResponseStatusException(HttpStatus.NOT_FOUND) );
+        return loanMapper.toDto(loanservice.renew(loan));
+    }
+
+    @PostMapping("returns")
+    public LoanBatchResult returnBooks(@RequestBody @Valid ReturnedLoansDTO dto){
+        return loanBatchService.returnLoans(dto.getIds());
+    }
 
-                    Book book = entity.getBook();
-                    BookDTO bookDTO = modelMapper.map(book, BookDTO.class);
-                    LoanDTO  loanDTO = modelMapper.map(entity, LoanDTO.class);
-                    loanDTO.setBook(bookDTO);
-                    return loanDTO;
+    @PostMapping("checkouts")
+    public LoanBatchResult checkout(@RequestBody @Valid CheckoutDTO dto){
+        List<Loan> loans = dto.getLoans().stream()
+                .map(item -> {
+                    Loan loan = loanMapper.toEntity(item);
+                    loan.setBook(Book.builder().isbn(item.getIsbn()).build());
+                    return loan;
+                })
+                .collect(Collectors.toList());
+        return loanBatchService.checkout(loans);
+    }
 
-                }).collect(Collectors.toList());
+    @GetMapping
+    public Page<LoanDTO> find(LoanFilterDTO dto, Pageable pageRequest, WebRequest request){
+        Page<LoanSummary> result = loanservice.findSummaries(dto, pageRequest);
+        if (request.checkNotModified(ETags.of(result, ETags::loanVersion))) {
+            return null;
+        }
+        List<LoanDTO> loans = result.getContent().stream()
+                .map(loanMapper::toDto)
+                .collect(Collectors.toList());
         return new PageImpl<LoanDTO>(loans, pageRequest, result.getTotalElements());
     }
+
+    @GetMapping(params = "cursor")
+    public CursorPageDTO<LoanDTO> findAfter(LoanFilterDTO dto,
+                                            @RequestParam String cursor,
+                                            @RequestParam(defaultValue = "20") int size){
+        Slice<LoanSummary> result = loanservice.findSummariesAfter(dto, Cursors.decode(cursor), Cursors.size(size));
+        List<LoanDTO> loans = result.getContent().stream()
+                .map(loanMapper::toDto)
+                .collect(Collectors.toList());
+        return Cursors.page(result, loans, LoanDTO::getId);
+    }
 }
@@ -0,0 +1,88 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import io.github.doflavio.libraryapi.api.dto.LoanDTO;
+import io.github.doflavio.libraryapi.api.dto.LoanFilterDTO;
+import io.github.doflavio.libraryapi.api.dto.ReturnedLoanDTO;
+import io.github.doflavio.libraryapi.api.mapper.LoanMapper;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.service.ReactiveBookService;
+import io.github.doflavio.libraryapi.service.ReactiveLoanService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Rotas /api/loans do perfil reactive, com as mesmas respostas do {@link LoanController}.
+ */
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+public class LoanHandler {
+
+    private final ReactiveLoanService loanService;
+    private final ReactiveBookService bookService;
+    private final LoanMapper loanMapper;
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return body(request, LoanDTO.class)
+                .flatMap(dto -> bookService.getBookByIsbn(dto.getIsbn())
+                        .switchIfEmpty(Mono.error(
+                                new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book not found for passed isbn")))
+                        .flatMap(book -> {
+                            Loan entity = loanMapper.toEntity(dto);
+                            entity.setBook(book);
+                            entity.setLoanDate(LocalDate.now());
+                            return loanService.save(entity);
+                        }))
+                .flatMap(loan -> ServerResponse.status(HttpStatus.CREATED).bodyValue(loan.getId()));
+    }
+
+    public Mono<ServerResponse> returnBook(ServerRequest request) {
+        return body(request, ReturnedLoanDTO.class)
+                .zipWith(loanService.getById(ServerRequests.id(request))
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND))),
+                        (dto, loan) -> {
+                            loan.setReturned(dto.getReturned());
+                            return loan;
+                        })
+                .flatMap(loanService::update)
+                .then(ServerResponse.ok().build());
+    }
+
+    public Mono<ServerResponse> find(ServerRequest request) {
+        return loanService.findSummaries(filter(request), ServerRequests.pageable(request))
+                .flatMap(result -> ServerResponse.ok()
+                        .eTag(ETags.of(result, ETags::loanVersion))
+                        .bodyValue(result.map(loanMapper::toDto)));
+    }
+
+    /**
+     * Mesmo filtro do find, sem paginação: uma linha JSON por empréstimo, escrita conforme o cliente consome.
+     */
+    public Mono<ServerResponse> stream(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(loanService.streamSummaries(filter(request)).map(loanMapper::toDto), LoanDTO.class);
+    }
+
+    private LoanFilterDTO filter(ServerRequest request) {
+        return LoanFilterDTO.builder()
+                .isbn(ServerRequests.param(request, "isbn"))
+                .customer(ServerRequests.param(request, "customer"))
+                .build();
+    }
+
+    private <T> Mono<T> body(ServerRequest request, Class<T> type) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(new ServerWebInputException("Request body is missing")));
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import io.github.doflavio.libraryapi.model.entity.BookLoanStats;
+import io.github.doflavio.libraryapi.model.entity.CustomerLoanStats;
+import io.github.doflavio.libraryapi.service.LoanStats;
+import io.github.doflavio.libraryapi.service.LoanStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class LoanStatsController {
+
+    private static final int MAX_TOP = 100;
+
+    private final LoanStatsService loanStatsService;
+
+    @GetMapping
+    public LoanStats stats(@RequestParam(defaultValue = "10") int top){
+        if (top < 1 || top > MAX_TOP) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "top must be between 1 and " + MAX_TOP);
+        }
+        return loanStatsService.getStats(top);
+    }
+
+    @GetMapping("books/{id}")
+    public BookLoanStats bookStats(@PathVariable Long id){
+        return loanStatsService.getBookStats(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("customers/{id}")
+    public CustomerLoanStats customerStats(@PathVariable Long id){
+        return loanStatsService.getCustomerStats(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import io.github.doflavio.libraryapi.api.exception.ApiErros;
+import io.github.doflavio.libraryapi.exception.BusinessException;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.BindException;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Endpoints funcionais do perfil reactive. Os erros viram as mesmas respostas do ApplicationControllerAdvice.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveApiRoutes {
+
+    @Bean
+    public RouterFunction<ServerResponse> apiRoutes(BookHandler books, LoanHandler loans) {
+        return RouterFunctions.route()
+                .path("/api/books", builder -> builder
+                        .GET("/{id}/loans", books::loansByBook)
+                        .GET("/{id}", books::get)
+                        .GET("", books::find)
+                        .POST("", books::create)
+                        .PUT("/{id}", books::update)
+                        .DELETE("/{id}", books::delete))
+                .path("/api/loans", builder -> builder
+                        // só quem pede application/x-ndjson explicitamente recebe o stream; */* continua paginado
+                        .GET("", RequestPredicates.headers(headers ->
+                                headers.accept().contains(MediaType.APPLICATION_NDJSON)), loans::stream)
+                        .GET("", loans::find)
+                        .POST("", loans::create)
+                        .PATCH("/{id}", loans::returnBook))
+                .onError(BindException.class, (ex, request) ->
+                        ServerResponse.badRequest().bodyValue(new ApiErros(ex.getBindingResult())))
+                .onError(BusinessException.class, (ex, request) ->
+                        ServerResponse.badRequest().bodyValue(new ApiErros(ex)))
+                .onError(ResponseStatusException.class, (ex, request) ->
+                        ServerResponse.status(ex.getStatus()).bodyValue(new ApiErros(ex)))
+                // a linha mudou entre a leitura e o update (@Version)
+                .onError(OptimisticLockingFailureException.class, (ex, request) ->
+                        ServerResponse.status(HttpStatus.PRECONDITION_FAILED)
+                                .bodyValue(new ApiErros(new BusinessException("Resource was changed by another request"))))
+                .build();
+    }
+}
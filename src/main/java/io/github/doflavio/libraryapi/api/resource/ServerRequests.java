@@ -0,0 +1,31 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.reactive.function.server.ServerRequest;
+
+/**
+ * Leitura dos parâmetros comuns nas rotas funcionais do perfil reactive, com os mesmos padrões do Spring Data Web.
+ */
+final class ServerRequests {
+
+    private static final int DEFAULT_SIZE = 20;
+    private static final int MAX_SIZE = 2000;
+
+    private ServerRequests() {
+    }
+
+    static Long id(ServerRequest request) {
+        return Long.valueOf(request.pathVariable("id"));
+    }
+
+    static String param(ServerRequest request, String name) {
+        return request.queryParam(name).orElse(null);
+    }
+
+    static Pageable pageable(ServerRequest request) {
+        int page = request.queryParam("page").map(Integer::parseInt).orElse(0);
+        int size = request.queryParam("size").map(Integer::parseInt).orElse(DEFAULT_SIZE);
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_SIZE));
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.doflavio.libraryapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache de segundo nível do Hibernate (entidade Book e consultas marcadas como cacheáveis) em Caffeine via JCache.
+ *
+ * As regiões de entidade e de consultas são limitadas pelo tamanho estimado em bytes e por tempo de vida.
+ * A região de timestamps não tem limite: se ela perder uma entrada, o Hibernate pode devolver uma consulta velha.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String BOOK_REGION = "books";
+
+    private static final List<String> BOUNDED_REGIONS =
+            Arrays.asList(BOOK_REGION, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+    // cada contexto Spring (inclusive nos testes) tem o seu CacheManager
+    private static final AtomicInteger MANAGERS = new AtomicInteger();
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${application.cache.books.maximum-bytes}") long bookMaximumBytes,
+            @Value("${application.cache.queries.maximum-bytes}") long queryMaximumBytes,
+            @Value("${application.cache.books.time-to-live-ms}") long timeToLiveMs) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + MANAGERS.incrementAndGet()), getClass().getClassLoader());
+        cacheManager.createCache(BOOK_REGION, bounded(bookMaximumBytes, timeToLiveMs));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                bounded(queryMaximumBytes, timeToLiveMs));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, unbounded());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheProperties(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, JCacheRegionFactory.class.getName());
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // alimenta as métricas hibernate.second.level.cache.* e hibernate.cache.query.*
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    /**
+     * Acertos, falhas, evicções e quantidade de entradas de cada região (cache.*) e a memória estimada (library.cache.memory).
+     */
+    @Bean
+    public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String region : BOUNDED_REGIONS) {
+                Cache<?, ?> cache = hibernateCacheManager.getCache(region).unwrap(Cache.class);
+                CaffeineCacheMetrics.monitor(registry, cache, region);
+                Gauge.builder("library.cache.memory", cache, HibernateCacheConfig::weightedSize)
+                        .tag("cache", region)
+                        .baseUnit("bytes")
+                        .description("Estimated memory held by the entries of the cache")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maximumBytes, long timeToLiveMs) {
+        CaffeineConfiguration<Object, Object> configuration = unbounded();
+        configuration.setMaximumWeight(OptionalLong.of(maximumBytes));
+        configuration.setWeigherFactory(Optional.of(EntryWeigher::new));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(timeToLiveMs)));
+        return configuration;
+    }
+
+    private static CaffeineConfiguration<Object, Object> unbounded() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // o Hibernate já guarda o estado desmontado; copiar em cada leitura só custaria tempo
+        configuration.setStoreByValue(false);
+        configuration.setNativeStatisticsEnabled(true);
+        return configuration;
+    }
+
+    private static double weightedSize(Cache<?, ?> cache) {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    /**
+     * Peso de uma entrada em bytes, estimado a partir do estado desmontado que o Hibernate guarda. A conta é
+     * aproximada (JVM 64 bits com compressed oops, Strings em Latin-1): basta para o limite da região, não é um perfil.
+     */
+    static final class EntryWeigher implements Weigher<Object, Object> {
+
+        // cabeçalho de 12 bytes mais alguns campos, arredondado para o alinhamento de 8
+        private static final long OBJECT_BYTES = 24;
+        // cabeçalho de 12 bytes mais o tamanho de 4, alinhado a 8
+        private static final long ARRAY_HEADER_BYTES = 16;
+        private static final long REFERENCE_BYTES = 4;
+
+        @Override
+        public int weigh(Object key, Object value) {
+            long bytes = OBJECT_BYTES + sizeOf(value);
+            return (int) Math.min(Integer.MAX_VALUE, bytes);
+        }
+
+        private long sizeOf(Object value) {
+            if (value instanceof CacheEntry) {
+                Serializable[] state = ((CacheEntry) value).getDisassembledState();
+                return OBJECT_BYTES + (state == null ? 0 : sizeOf(state));
+            }
+            if (value instanceof Object[]) {
+                Object[] elements = (Object[]) value;
+                long bytes = align(ARRAY_HEADER_BYTES + REFERENCE_BYTES * elements.length);
+                for (Object element : elements) {
+                    bytes += sizeOf(element);
+                }
+                return bytes;
+            }
+            if (value instanceof String) {
+                return OBJECT_BYTES + align(ARRAY_HEADER_BYTES + ((String) value).length());
+            }
+            return value == null ? 0 : OBJECT_BYTES;
+        }
+
+        private static long align(long bytes) {
+            return (bytes + 7) & ~7L;
+        }
+    }
+}
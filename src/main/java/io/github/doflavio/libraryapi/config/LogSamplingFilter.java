@@ -0,0 +1,59 @@
+package io.github.doflavio.libraryapi.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import io.github.doflavio.libraryapi.api.CorrelationIdFilter;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Amostragem dos logs de leitura (logback-spring.xml): de cada linha de log abaixo de WARN dos loggers configurados,
+ * escrita durante um GET, só uma a cada {@code rate} passa.
+ *
+ * A contagem é por mensagem (o formato do log.info), então cada endpoint é amostrado separadamente, e a decisão
+ * acontece antes de o evento ser montado. Escritas, avisos e erros nunca são descartados.
+ */
+public class LogSamplingFilter extends TurboFilter {
+
+    private String loggerPrefix = "";
+    private int rate = 1;
+    private Set<String> methods = new HashSet<>(Arrays.asList("GET", "HEAD"));
+
+    private final ConcurrentMap<String, AtomicLong> seen = new ConcurrentHashMap<>();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (rate <= 1 || format == null || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())
+                || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        String method = MDC.get(CorrelationIdFilter.HTTP_METHOD);
+        if (method == null || !methods.contains(method)) {
+            return FilterReply.NEUTRAL;
+        }
+        long count = seen.computeIfAbsent(format, key -> new AtomicLong()).getAndIncrement();
+        return count % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setLogger(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public void setMethods(String methods) {
+        this.methods = new HashSet<>(Arrays.asList(methods.toUpperCase().split("\\s*,\\s*")));
+    }
+}
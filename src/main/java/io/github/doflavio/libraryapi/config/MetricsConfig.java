@@ -0,0 +1,100 @@
+package io.github.doflavio.libraryapi.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTags;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Métricas da aplicação além das que o actuator já publica, exportadas junto com elas em /actuator/prometheus.
+ *
+ * library.service: tempo de cada método anotado com @Timed nos serviços.
+ * library.db.statements: comandos SQL preparados pelo Hibernate em cada requisição, com as tags de http.server.requests.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterProperties(StatementCounter statementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public WebMvcConfigurer statementMetrics(StatementCounter statementCounter, MeterRegistry registry) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry interceptors) {
+                interceptors.addInterceptor(new HandlerInterceptor() {
+                    @Override
+                    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                        statementCounter.start();
+                        return true;
+                    }
+
+                    @Override
+                    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                                Object handler, Exception ex) {
+                        DistributionSummary.builder("library.db.statements")
+                                .tags(Tags.of(WebMvcTags.method(request), WebMvcTags.uri(request, response)))
+                                .baseUnit("statements")
+                                .description("SQL statements prepared by Hibernate while serving the request")
+                                .register(registry)
+                                .record(statementCounter.stop());
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * Conta os comandos que o Hibernate prepara na thread, somente entre start() e stop().
+     * Os fragmentos com JdbcTemplate (importação e operações em lote) não passam por aqui.
+     */
+    static final class StatementCounter implements StatementInspector {
+
+        private final ThreadLocal<int[]> statements = new ThreadLocal<>();
+
+        void start() {
+            statements.set(new int[1]);
+        }
+
+        int stop() {
+            int[] count = statements.get();
+            statements.remove();
+            return count == null ? 0 : count[0];
+        }
+
+        @Override
+        public String inspect(String sql) {
+            int[] count = statements.get();
+            if (count != null) {
+                count[0]++;
+            }
+            return sql;
+        }
+    }
+}
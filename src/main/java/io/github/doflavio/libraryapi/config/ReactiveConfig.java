@@ -0,0 +1,39 @@
+package io.github.doflavio.libraryapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.doflavio.libraryapi.model.repository.reactive.ReactiveBookRepository;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+/**
+ * Perfil reactive: /api/books e /api/loans atendidos pelo WebFlux sobre Netty, com acesso ao banco pelo R2DBC.
+ *
+ * O JDBC continua existindo para o Flyway e os jobs agendados, mas o Boot não cria o DataSource quando há um
+ * ConnectionFactory do R2DBC, então ele é declarado aqui. Os índices em memória (busca, sugestões, empréstimos
+ * em aberto) e o cache de segundo nível não acompanham as escritas reativas, por isso busca, sugestões,
+ * disponibilidade, importação e operações em lote só existem no deploy servlet.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+@EnableR2dbcRepositories(basePackageClasses = ReactiveBookRepository.class)
+public class ReactiveConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // com o Tomcat também no classpath o Boot escolheria o adaptador reativo do Tomcat
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.doflavio.libraryapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Modo opcional (application.web.virtual-threads=true) em que o Tomcat atende cada requisição numa virtual thread.
+ *
+ * O bytecode do projeto continua em Java 11, então o executor é obtido por reflexão e exige rodar num JDK 21+.
+ * O limite de acesso ao banco passa a ser só o pool do Hikari (spring.datasource.hikari.maximum-pool-size).
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "application.web.virtual-threads", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return newVirtualThreadPerTaskExecutor();
+    }
+
+    // sem o pool de threads, o teto de conexões abertas é o único limite do Tomcat
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler(
+            @Qualifier("virtualThreadExecutor") ExecutorService executor,
+            @Value("${application.web.virtual-threads-max-connections}") int maxConnections) {
+        log.info(" serving requests on virtual threads, up to {} connections ", maxConnections);
+        return protocolHandler -> {
+            protocolHandler.setExecutor(executor);
+            if (protocolHandler instanceof AbstractProtocol) {
+                ((AbstractProtocol<?>) protocolHandler).setMaxConnections(maxConnections);
+            }
+        };
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            return (ExecutorService) factory.invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("application.web.virtual-threads requires Java 21 or later, running on "
+                    + System.getProperty("java.version"), e);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not create the virtual thread executor", e);
+        }
+    }
+}
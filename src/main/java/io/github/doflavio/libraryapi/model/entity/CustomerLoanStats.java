@@ -0,0 +1,28 @@
+package io.github.doflavio.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+// mantida pelo trigger trg_loan_stats; a aplicação só lê, fora a reconciliação
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table
+public class CustomerLoanStats {
+
+    @Id
+    @Column(name = "id_customer")
+    private Long customerId;
+
+    @Column
+    private Long totalLoans;
+
+    @Column
+    private Long openLoans;
+}
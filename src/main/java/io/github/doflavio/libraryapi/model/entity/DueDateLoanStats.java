@@ -0,0 +1,40 @@
+package io.github.doflavio.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// empréstimos em aberto por prazo, em várias linhas (slots) por prazo; mantida pelo trigger trg_loan_stats
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table
+@IdClass(DueDateLoanStats.Key.class)
+public class DueDateLoanStats {
+
+    @Id
+    private LocalDate dueDate;
+
+    @Id
+    private int slot;
+
+    @Column
+    private Long openLoans;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private LocalDate dueDate;
+
+        private int slot;
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.doflavio.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table
+public class LateLoanNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_loan")
+    private Long loanId;
+
+    @Column(name = "id_customer")
+    private Long customerId;
+
+    @Column(name = "customer_email")
+    private String customerEmail;
+
+    @Column
+    private LocalDate dueDate;
+
+    @Column
+    private LocalDateTime createdAt;
+
+    @Column
+    private LocalDateTime sentAt;
+
+    @Column
+    private int attempts;
+}
@@ -26,6 +26,10 @@ public class Loan {
     @Column(name = "customer_email")
     private String customerEmail;
 
+    // cliente normalizado; customer e customerEmail guardam o que foi informado na retirada
+    @Column(name = "id_customer")
+    private Long customerId;
+
     @JoinColumn(name = "id_book")
     @ManyToOne
     private Book book;
@@ -33,9 +37,19 @@ public class Loan {
     @Column
     private LocalDate loanDate;
 
+    // último dia para devolver, já com a carência da regra do empréstimo
+    @Column
+    private LocalDate dueDate;
+
+    @Column
+    private int renewals;
+
     @Column
     private boolean returned;
 
+    @Version
+    private Long version;
+
     public boolean getReturned() {
         return returned;
     }
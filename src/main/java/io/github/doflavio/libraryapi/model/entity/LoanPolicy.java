@@ -0,0 +1,36 @@
+package io.github.doflavio.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table
+public class LoanPolicy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_book")
+    private Long bookId;
+
+    @Column(name = "id_customer")
+    private Long customerId;
+
+    @Column
+    private int loanDays;
+
+    @Column
+    private int graceDays;
+
+    @Column
+    private int maxRenewals;
+}
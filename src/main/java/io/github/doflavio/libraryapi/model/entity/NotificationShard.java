@@ -0,0 +1,44 @@
+package io.github.doflavio.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table
+public class NotificationShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column
+    private LocalDate runDate;
+
+    @Column
+    private Long fromId;
+
+    @Column
+    private Long toId;
+
+    @Column
+    private Long checkpointId;
+
+    @Column(length = 100)
+    private String owner;
+
+    @Column
+    private LocalDateTime lockedUntil;
+
+    @Column
+    private boolean finished;
+}
@@ -0,0 +1,26 @@
+package io.github.doflavio.libraryapi.model.entity.reactive;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Linha da tabela customer lida pelo R2DBC.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("customer")
+public class CustomerRecord {
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    private String email;
+}
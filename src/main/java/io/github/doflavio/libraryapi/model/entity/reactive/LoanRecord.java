@@ -0,0 +1,47 @@
+package io.github.doflavio.libraryapi.model.entity.reactive;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+/**
+ * Linha da tabela loan lida pelo R2DBC; o livro é só a chave estrangeira.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("loan")
+public class LoanRecord {
+
+    @Id
+    private Long id;
+
+    private String customer;
+
+    private String customerEmail;
+
+    @Column("id_customer")
+    private Long customerId;
+
+    @Column("id_book")
+    private Long bookId;
+
+    private LocalDate loanDate;
+
+    private LocalDate dueDate;
+
+    private int renewals;
+
+    private boolean returned;
+
+    @Version
+    private Long version;
+}
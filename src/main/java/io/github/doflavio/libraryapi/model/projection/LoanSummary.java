@@ -0,0 +1,29 @@
+package io.github.doflavio.libraryapi.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanSummary {
+
+    private Long id;
+
+    private String customer;
+
+    private String customerEmail;
+
+    private Long bookId;
+
+    private String bookIsbn;
+
+    private String bookTitle;
+
+    private String bookAuthor;
+
+    private Long version;
+
+    private Long bookVersion;
+}
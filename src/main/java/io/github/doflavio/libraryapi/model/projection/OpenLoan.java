@@ -0,0 +1,15 @@
+package io.github.doflavio.libraryapi.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OpenLoan {
+
+    private Long id;
+
+    private Long bookId;
+}
@@ -0,0 +1,12 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.BookLoanStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface BookLoanStatsRepository extends JpaRepository<BookLoanStats, Long> {
+
+    List<BookLoanStats> findAllByOrderByTotalLoansDesc(Pageable pageable);
+}
@@ -1,14 +1,38 @@
 package io.github.doflavio.libraryapi.model.repository;
 
 import io.github.doflavio.libraryapi.model.entity.Book;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
-public interface BookRepository extends JpaRepository<Book,Long> {
+public interface BookRepository extends JpaRepository<Book,Long>, BookRepositoryCustom {
 
     boolean existsByIsbn(String isbn);
 
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
     Optional<Book> findByIsbn(String isbn);
 
+    @Query(" select b from Book b where b.id > :afterId " +
+            " and ( :title is null or lower(b.title) like concat(lower(:title), '%') ) " +
+            " and ( :author is null or lower(b.author) like concat(lower(:author), '%') ) " +
+            " and ( :isbn is null or lower(b.isbn) like concat(lower(:isbn), '%') ) " +
+            " order by b.id ")
+    Slice<Book> findSliceAfter(
+            @Param("afterId") Long afterId
+            , @Param("title") String title
+            , @Param("author") String author
+            , @Param("isbn") String isbn
+            , Pageable pageable);
+
+    // só o índice da chave primária, para a disponibilidade não carregar os livros
+    @Query(" select b.id from Book b where b.id in :ids ")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,34 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Devolve, dentre os isbns informados, os que já estão cadastrados.
+     */
+    Set<String> findExistingIsbns(Collection<String> isbns);
+
+    /**
+     * Devolve os ids dos livros cadastrados com os isbns informados, indexados pelo isbn.
+     */
+    Map<String, Long> findIdsByIsbn(Collection<String> isbns);
+
+    /**
+     * Insere os livros num único lote JDBC e devolve os ids gerados, indexados pelo isbn.
+     */
+    @Transactional
+    Map<String, Long> insertBatch(List<Book> books);
+
+    /**
+     * Percorre todos os livros direto pelo JDBC, sem passar pelo contexto de persistência.
+     */
+    void forEachBook(Consumer<Book> consumer);
+}
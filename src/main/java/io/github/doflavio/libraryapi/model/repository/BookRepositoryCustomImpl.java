@@ -0,0 +1,118 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final String SELECT_EXISTING = "select isbn from book where isbn = any(?)";
+    private static final String SELECT_IDS = "select id, isbn from book where isbn = any(?)";
+    private static final String SELECT_BOOKS = "select id, title, author, isbn from book";
+    private static final String INSERT_BOOK = "insert into book (title, author, isbn) values (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Set<String> findExistingIsbns(Collection<String> isbns) {
+        if (isbns.isEmpty()) {
+            return Collections.emptySet();
+        }
+        // Um único parâmetro array: um "in (?, ?, ...)" com mil parâmetros é comparado valor a valor em cada linha
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query(SELECT_EXISTING,
+                ps -> ps.setObject(1, isbns.toArray()),
+                rs -> {
+                    existing.add(rs.getString(1));
+                });
+        return existing;
+    }
+
+    @Override
+    public Map<String, Long> findIdsByIsbn(Collection<String> isbns) {
+        if (isbns.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> ids = new HashMap<>(isbns.size() * 2);
+        jdbcTemplate.query(SELECT_IDS,
+                ps -> ps.setObject(1, isbns.toArray()),
+                rs -> {
+                    ids.put(rs.getString("isbn"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    @Override
+    public Map<String, Long> insertBatch(List<Book> books) {
+        if (books.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        evictQueryCacheAfterCommit();
+        // Com id IDENTITY o Hibernate desliga o batch de inserts, por isso o lote vai direto pelo JDBC
+        return jdbcTemplate.execute(
+                connection -> connection.prepareStatement(INSERT_BOOK, new String[]{"id"}),
+                (PreparedStatement ps) -> {
+                    for (Book book : books) {
+                        ps.setString(1, book.getTitle());
+                        ps.setString(2, book.getAuthor());
+                        ps.setString(3, book.getIsbn());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    Map<String, Long> ids = new HashMap<>(books.size() * 2);
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (int i = 0; keys.next(); i++) {
+                            ids.put(books.get(i).getIsbn(), keys.getLong(1));
+                        }
+                    }
+                    return ids;
+                });
+    }
+
+    /**
+     * O Hibernate não vê os inserts feitos pelo JDBC: sem isso um findByIsbn em cache continuaria vazio.
+     */
+    private void evictQueryCacheAfterCommit() {
+        org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.evictDefaultQueryRegion();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.evictDefaultQueryRegion();
+            }
+        });
+    }
+
+    @Override
+    public void forEachBook(Consumer<Book> consumer) {
+        jdbcTemplate.query(SELECT_BOOKS, rs -> {
+            consumer.accept(Book.builder()
+                    .id(rs.getLong("id"))
+                    .title(rs.getString("title"))
+                    .author(rs.getString("author"))
+                    .isbn(rs.getString("isbn"))
+                    .build());
+        });
+    }
+}
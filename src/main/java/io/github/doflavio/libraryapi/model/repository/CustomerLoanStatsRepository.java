@@ -0,0 +1,12 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.CustomerLoanStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CustomerLoanStatsRepository extends JpaRepository<CustomerLoanStats, Long> {
+
+    List<CustomerLoanStats> findAllByOrderByTotalLoansDesc(Pageable pageable);
+}
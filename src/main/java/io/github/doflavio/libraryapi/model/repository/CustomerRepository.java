@@ -0,0 +1,17 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.Customer;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    Optional<Customer> findByEmail(String email);
+
+    List<Customer> findByEmailIn(Collection<String> emails);
+
+    Optional<Customer> findFirstByNameAndEmailIsNullOrderById(String name);
+}
@@ -0,0 +1,19 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.DueDateLoanStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+
+public interface DueDateLoanStatsRepository extends JpaRepository<DueDateLoanStats, DueDateLoanStats.Key> {
+
+    // poucas linhas por dia de prazo: a soma não percorre a tabela loan
+    @Query(" select coalesce(sum(s.openLoans), 0) from DueDateLoanStats s ")
+    long sumOpenLoans();
+
+    // uma linha por slot de cada prazo passado que ainda tem empréstimo aberto (os zerados a reconciliação apaga)
+    @Query(" select coalesce(sum(s.openLoans), 0) from DueDateLoanStats s where s.dueDate < :today ")
+    long sumOpenLoansDueBefore(@Param("today") LocalDate today);
+}
@@ -0,0 +1,33 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    // um único update condicional: entre duas instâncias disputando o lease vencido, só uma altera a linha
+    @Modifying
+    @Transactional
+    @Query(" update JobLease l set l.owner = :owner, l.lockedUntil = :until " +
+            " where l.name = :name and ( l.lockedUntil < :now or l.owner = :owner ) ")
+    int acquire(
+            @Param("name") String name
+            , @Param("owner") String owner
+            , @Param("now") LocalDateTime now
+            , @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Transactional
+    @Query(" update JobLease l set l.lockedUntil = :now where l.name = :name and l.owner = :owner ")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    @Query(" select case when ( count(l.name) > 0 ) then true else false end " +
+            " from JobLease l where l.name = :name and l.lockedUntil > :now ")
+    boolean isHeld(@Param("name") String name, @Param("now") LocalDateTime now);
+}
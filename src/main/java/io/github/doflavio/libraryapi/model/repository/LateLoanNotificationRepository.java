@@ -0,0 +1,75 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.LateLoanNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface LateLoanNotificationRepository extends JpaRepository<LateLoanNotification, Long> {
+
+    @Query(" select max(n.dueDate) from LateLoanNotification n ")
+    LocalDate findLastDueDate();
+
+    /**
+     * Enfileira, num único insert-select, os empréstimos em aberto com due_date a partir de since e antes de today.
+     * A faixa usa o índice idx_loan_returned_due_date; o not exists (e o uk_notification_loan) evita duplicatas
+     * quando a faixa se sobrepõe à da noite anterior.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = " insert into late_loan_notification (id_loan, id_customer, customer_email, due_date, created_at) " +
+            " select l.id, l.id_customer, l.customer_email, l.due_date, :now from loan l " +
+            " where l.returned = false and l.due_date >= :since and l.due_date < :today " +
+            " and l.customer_email is not null " +
+            " and not exists ( select 1 from late_loan_notification n where n.id_loan = l.id ) ")
+    int enqueueLateLoans(
+            @Param("since") LocalDate since
+            , @Param("today") LocalDate today
+            , @Param("now") LocalDateTime now);
+
+    @Query(" select min(n.id) from LateLoanNotification n where n.sentAt is null and n.attempts < :maxAttempts ")
+    Long findFirstPendingId(@Param("maxAttempts") int maxAttempts);
+
+    @Query(" select max(n.id) from LateLoanNotification n where n.sentAt is null and n.attempts < :maxAttempts ")
+    Long findLastPendingId(@Param("maxAttempts") int maxAttempts);
+
+    @Query(" select n from LateLoanNotification n where n.sentAt is null and n.id > :lastId and n.id <= :toId " +
+            " and n.attempts < :maxAttempts order by n.id ")
+    List<LateLoanNotification> findPendingBetween(
+            @Param("lastId") Long lastId
+            , @Param("toId") Long toId
+            , @Param("maxAttempts") int maxAttempts
+            , Pageable pageable);
+
+    // só marca quem ainda está pendente: repetir a marcação não altera a data do primeiro envio
+    @Modifying
+    @Transactional
+    @Query(" update LateLoanNotification n set n.sentAt = :sentAt where n.id in :ids and n.sentAt is null ")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    // o cliente já recebeu o e-mail desta noite pela notificação de outro empréstimo
+    @Modifying
+    @Transactional
+    @Query(" update LateLoanNotification n set n.sentAt = :sentAt where n.customerId in :customerIds and n.sentAt is null ")
+    int markSentOfCustomers(@Param("customerIds") Collection<Long> customerIds, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Transactional
+    @Query(" update LateLoanNotification n set n.attempts = n.attempts + 1 where n.id in :ids and n.sentAt is null ")
+    int markFailed(@Param("ids") Collection<Long> ids);
+
+    // empréstimo devolvido antes do envio: a notificação deixa de fazer sentido
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = " delete from late_loan_notification n where n.sent_at is null " +
+            " and exists ( select 1 from loan l where l.id = n.id_loan and l.returned = true ) ")
+    int deletePendingOfReturnedLoans();
+}
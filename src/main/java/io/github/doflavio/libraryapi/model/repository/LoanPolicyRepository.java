@@ -0,0 +1,7 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.LoanPolicy;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LoanPolicyRepository extends JpaRepository<LoanPolicy, Long> {
+}
@@ -2,17 +2,25 @@ package io.github.doflavio.libraryapi.model.repository;
 
 import io.github.doflavio.libraryapi.model.entity.Book;
 import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
+import io.github.doflavio.libraryapi.model.projection.OpenLoan;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
-public interface LoanRepository extends JpaRepository<Loan,Long> {
+public interface LoanRepository extends JpaRepository<Loan,Long>, LoanRepositoryCustom {
 
     @Query(value = " select case when ( count (l.id) > 0) then true else false " +
             " end from Loan l where l.book = :book and ( l.returned is null or l.returned is false ) ")
@@ -26,6 +34,52 @@ public interface LoanRepository extends JpaRepository<Loan,Long> {
 
     Page<Loan> findByBook(Book book, Pageable pageable);
 
-    @Query(" select l from Loan l where l.loanDate <= :threeDaysAgo and ( l.returned is null or l.returned is false ) ")
-    List<Loan> findByLoanDateLessThanAndReturned(@Param("threeDaysAgo") LocalDate threeDaysAgo);
+    @Query(value = " select new io.github.doflavio.libraryapi.model.projection.LoanSummary( " +
+            " l.id, l.customer, l.customerEmail, b.id, b.isbn, b.title, b.author, l.version, b.version ) " +
+            " from Loan l join l.book b where b.isbn = :isbn or l.customer = :customer ",
+            countQuery = " select count(l.id) from Loan l join l.book b where b.isbn = :isbn or l.customer = :customer ")
+    Page<LoanSummary> findSummariesByBookIsbnOrCustomer(
+            @Param("isbn") String isbn
+            , @Param("customer") String customer
+            , Pageable pageable);
+
+    @Query(value = " select new io.github.doflavio.libraryapi.model.projection.LoanSummary( " +
+            " l.id, l.customer, l.customerEmail, b.id, b.isbn, b.title, b.author, l.version, b.version ) " +
+            " from Loan l join l.book b where b.id = :bookId ",
+            countQuery = " select count(l.id) from Loan l where l.book.id = :bookId ")
+    Page<LoanSummary> findSummariesByBookId(@Param("bookId") Long bookId, Pageable pageable);
+
+    @Query(" select new io.github.doflavio.libraryapi.model.projection.LoanSummary( " +
+            " l.id, l.customer, l.customerEmail, b.id, b.isbn, b.title, b.author, l.version, b.version ) " +
+            " from Loan l join l.book b where l.id > :afterId and ( b.isbn = :isbn or l.customer = :customer ) " +
+            " order by l.id ")
+    Slice<LoanSummary> findSummariesAfter(
+            @Param("afterId") Long afterId
+            , @Param("isbn") String isbn
+            , @Param("customer") String customer
+            , Pageable pageable);
+
+    // histórico do cliente pelo índice idx_loan_customer_id, em ordem de id
+    @Query(" select new io.github.doflavio.libraryapi.model.projection.LoanSummary( " +
+            " l.id, l.customer, l.customerEmail, b.id, b.isbn, b.title, b.author, l.version, b.version ) " +
+            " from Loan l join l.book b where l.customerId = :customerId and l.id > :afterId order by l.id ")
+    Slice<LoanSummary> findSummariesByCustomerAfter(
+            @Param("customerId") Long customerId
+            , @Param("afterId") Long afterId
+            , Pageable pageable);
+
+    @Query(" select l from Loan l where l.returned = false and l.dueDate < :today ")
+    List<Loan> findOverdue(@Param("today") LocalDate today);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(" select new io.github.doflavio.libraryapi.model.projection.OpenLoan(l.id, l.book.id) " +
+            " from Loan l where l.id in :ids and l.returned = false ")
+    List<OpenLoan> findOpenLoansForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(" update Loan l set l.returned = true, l.version = l.version + 1 where l.id in :ids ")
+    int markReturned(@Param("ids") Collection<Long> ids);
+
+    @Query(" select l.book.id from Loan l where l.book.id in :bookIds and l.returned = false ")
+    Set<Long> findOpenBookIds(@Param("bookIds") Collection<Long> bookIds);
 }
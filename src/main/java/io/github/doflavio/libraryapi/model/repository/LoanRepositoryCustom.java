@@ -0,0 +1,26 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.LongConsumer;
+
+public interface LoanRepositoryCustom {
+
+    /**
+     * Insere os empréstimos num único lote JDBC e devolve os ids gerados, na mesma ordem.
+     */
+    @Transactional
+    List<Long> insertBatch(List<Loan> loans);
+
+    /**
+     * Percorre os ids dos livros com empréstimo em aberto sem carregar as entidades.
+     */
+    void forEachOpenBookId(LongConsumer consumer);
+
+    /**
+     * Consulta pontual em uk_loan_open_book: se o livro tem empréstimo em aberto agora, em qualquer instância.
+     */
+    boolean hasOpenLoan(long bookId);
+}
@@ -0,0 +1,70 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+@RequiredArgsConstructor
+public class LoanRepositoryCustomImpl implements LoanRepositoryCustom {
+
+    private static final String INSERT_LOAN = "insert into loan (customer, customer_email, id_customer, id_book, loan_date, due_date, returned) "
+            + "values (?, ?, ?, ?, ?, ?, ?)";
+
+    // open_book_id só tem valor enquanto o empréstimo está aberto e é coberto por uk_loan_open_book
+    private static final String SELECT_OPEN_BOOK_IDS = "select open_book_id from loan where open_book_id is not null";
+    private static final String COUNT_OPEN_BY_BOOK = "select count(*) from loan where open_book_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> insertBatch(List<Loan> loans) {
+        if (loans.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.execute(
+                connection -> connection.prepareStatement(INSERT_LOAN, new String[]{"id"}),
+                (PreparedStatement ps) -> {
+                    for (Loan loan : loans) {
+                        ps.setString(1, loan.getCustomer());
+                        ps.setString(2, loan.getCustomerEmail());
+                        ps.setObject(3, loan.getCustomerId(), Types.BIGINT);
+                        ps.setLong(4, loan.getBook().getId());
+                        ps.setDate(5, Date.valueOf(loan.getLoanDate()));
+                        ps.setDate(6, loan.getDueDate() == null ? null : Date.valueOf(loan.getDueDate()));
+                        ps.setBoolean(7, loan.getReturned());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    List<Long> ids = new ArrayList<>(loans.size());
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            ids.add(keys.getLong(1));
+                        }
+                    }
+                    return ids;
+                });
+    }
+
+    @Override
+    public void forEachOpenBookId(LongConsumer consumer) {
+        jdbcTemplate.query(SELECT_OPEN_BOOK_IDS, rs -> {
+            consumer.accept(rs.getLong(1));
+        });
+    }
+
+    @Override
+    public boolean hasOpenLoan(long bookId) {
+        Long count = jdbcTemplate.queryForObject(COUNT_OPEN_BY_BOOK, Long.class, bookId);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Confere os contadores mantidos pelo trigger trg_loan_stats contra a tabela loan.
+ *
+ * Cada consulta de divergência lê a recontagem e o contador no mesmo comando, e só devolve as chaves que diferem.
+ * A correção soma a diferença ao contador, como o trigger faz, em vez de gravar o valor recontado: uma retirada
+ * ou devolução que termine entre a consulta e a correção continua contada.
+ */
+@Repository
+public class LoanStatsReconciler {
+
+    private static final String BOOK_DRIFT = " select c.id_book, c.total_loans - coalesce(s.total_loans, 0), " +
+            " c.open_loans - coalesce(s.open_loans, 0) from ( select id_book, count(*) total_loans, " +
+            " sum(case when returned then 0 else 1 end) open_loans from loan where id_book is not null group by id_book ) c " +
+            " left join book_loan_stats s on s.id_book = c.id_book " +
+            " where s.id_book is null or s.total_loans <> c.total_loans or s.open_loans <> c.open_loans " +
+            " union all select s.id_book, - s.total_loans, - s.open_loans from book_loan_stats s " +
+            " where ( s.total_loans <> 0 or s.open_loans <> 0 ) " +
+            " and not exists ( select 1 from loan l where l.id_book = s.id_book ) ";
+
+    private static final String CUSTOMER_DRIFT = " select c.id_customer, c.total_loans - coalesce(s.total_loans, 0), " +
+            " c.open_loans - coalesce(s.open_loans, 0) from ( select id_customer, count(*) total_loans, " +
+            " sum(case when returned then 0 else 1 end) open_loans from loan where id_customer is not null group by id_customer ) c " +
+            " left join customer_loan_stats s on s.id_customer = c.id_customer " +
+            " where s.id_customer is null or s.total_loans <> c.total_loans or s.open_loans <> c.open_loans " +
+            " union all select s.id_customer, - s.total_loans, - s.open_loans from customer_loan_stats s " +
+            " where ( s.total_loans <> 0 or s.open_loans <> 0 ) " +
+            " and not exists ( select 1 from loan l where l.id_customer = s.id_customer ) ";
+
+    private static final String DUE_DATE_DRIFT = " select c.due_date, 0, c.open_loans - coalesce(s.open_loans, 0) " +
+            " from ( select due_date, count(*) open_loans from loan " +
+            " where returned = false and due_date is not null group by due_date ) c " +
+            " left join ( select due_date, sum(open_loans) open_loans from due_date_loan_stats group by due_date ) s " +
+            " on s.due_date = c.due_date where s.due_date is null or s.open_loans <> c.open_loans " +
+            " union all select s.due_date, 0, - s.open_loans " +
+            " from ( select due_date, sum(open_loans) open_loans from due_date_loan_stats group by due_date ) s " +
+            " where s.open_loans <> 0 " +
+            " and not exists ( select 1 from loan l where l.returned = false and l.due_date = s.due_date ) ";
+
+    // prazos passados zerados não voltam a mudar: empréstimo novo ou renovado sempre vence de hoje em diante
+    private static final String DELETE_EMPTY_DUE_DATES =
+            " delete from due_date_loan_stats where open_loans = 0 and due_date < ? ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LoanStatsReconciler(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Corrige os contadores divergentes e devolve quantas chaves (livro, cliente ou prazo) foram corrigidas.
+     */
+    public int reconcile(LocalDate today) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) conn -> {
+            int corrected = correct(conn, BOOK_DRIFT, LoanStatsTrigger.BOOKS)
+                    + correct(conn, CUSTOMER_DRIFT, LoanStatsTrigger.CUSTOMERS)
+                    + correct(conn, DUE_DATE_DRIFT, LoanStatsTrigger.DUE_DATES);
+            try (PreparedStatement delete = conn.prepareStatement(DELETE_EMPTY_DUE_DATES)) {
+                delete.setDate(1, Date.valueOf(today));
+                delete.executeUpdate();
+            }
+            return corrected;
+        });
+    }
+
+    private int correct(Connection conn, String driftQuery, LoanStatsTrigger.Counters counters) throws SQLException {
+        List<Object[]> drifts = new ArrayList<>();
+        try (PreparedStatement statement = conn.prepareStatement(driftQuery);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                drifts.add(new Object[]{rs.getObject(1), rs.getLong(2), rs.getLong(3)});
+            }
+        }
+        for (Object[] drift : drifts) {
+            // a diferença do prazo vai para o slot 0; a soma dos slots é o que importa
+            List<Object> key = counters == LoanStatsTrigger.DUE_DATES
+                    ? Arrays.asList(drift[0], 0)
+                    : Arrays.asList(drift[0]);
+            counters.add(conn, key, (Long) drift[1], (Long) drift[2]);
+        }
+        return drifts.size();
+    }
+}
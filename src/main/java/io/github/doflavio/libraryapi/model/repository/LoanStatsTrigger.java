@@ -0,0 +1,128 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import org.h2.api.ErrorCode;
+import org.h2.tools.TriggerAdapter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigger trg_loan_stats (V8): mantém book_loan_stats, customer_loan_stats (V9) e due_date_loan_stats a cada linha
+ * inserida, alterada ou removida em loan, na mesma transação da escrita.
+ *
+ * A linha antiga sai dos contadores e a nova entra; as chaves cujo saldo dá zero (um update que não mexeu em
+ * livro, cliente, prazo nem devolução, como o incremento da versão) não geram escrita. Todos os empréstimos do dia
+ * caem no mesmo prazo, então o contador por prazo é dividido em {@link #DUE_DATE_SLOTS} linhas escolhidas pelo id
+ * do empréstimo: retiradas simultâneas não disputam o lock da mesma linha.
+ */
+public class LoanStatsTrigger extends TriggerAdapter {
+
+    // o mesmo mod(id, 16) do preenchimento em V8
+    static final int DUE_DATE_SLOTS = 16;
+
+    static final Counters BOOKS = new Counters(
+            " update book_loan_stats set total_loans = total_loans + ?, open_loans = open_loans + ? where id_book = ? ",
+            " insert into book_loan_stats (total_loans, open_loans, id_book) values (?, ?, ?) ", true);
+
+    static final Counters CUSTOMERS = new Counters(
+            " update customer_loan_stats set total_loans = total_loans + ?, open_loans = open_loans + ? where id_customer = ? ",
+            " insert into customer_loan_stats (total_loans, open_loans, id_customer) values (?, ?, ?) ", true);
+
+    static final Counters DUE_DATES = new Counters(
+            " update due_date_loan_stats set open_loans = open_loans + ? where due_date = ? and slot = ? ",
+            " insert into due_date_loan_stats (open_loans, due_date, slot) values (?, ?, ?) ", false);
+
+    @Override
+    public void fire(Connection conn, ResultSet oldRow, ResultSet newRow) throws SQLException {
+        Map<List<Object>, long[]> books = new LinkedHashMap<>();
+        Map<List<Object>, long[]> customers = new LinkedHashMap<>();
+        Map<List<Object>, long[]> dueDates = new LinkedHashMap<>();
+        collect(oldRow, -1, books, customers, dueDates);
+        collect(newRow, 1, books, customers, dueDates);
+
+        BOOKS.apply(conn, books);
+        CUSTOMERS.apply(conn, customers);
+        DUE_DATES.apply(conn, dueDates);
+    }
+
+    private void collect(ResultSet row, int sign, Map<List<Object>, long[]> books, Map<List<Object>, long[]> customers,
+                         Map<List<Object>, long[]> dueDates) throws SQLException {
+        if (row == null) {
+            return;
+        }
+        int open = row.getBoolean("RETURNED") ? 0 : sign;
+        add(books, sign, open, row.getObject("ID_BOOK"));
+        add(customers, sign, open, row.getObject("ID_CUSTOMER"));
+        add(dueDates, 0, open, row.getObject("DUE_DATE"), (int) (row.getLong("ID") % DUE_DATE_SLOTS));
+    }
+
+    private void add(Map<List<Object>, long[]> deltas, long total, long open, Object... key) {
+        if (key[0] == null) {
+            return;
+        }
+        long[] delta = deltas.computeIfAbsent(Arrays.asList(key), k -> new long[2]);
+        delta[0] += total;
+        delta[1] += open;
+    }
+
+    /**
+     * Soma aos contadores de uma tabela, criando a linha da chave se ainda não existir. Também usado pela
+     * reconciliação, que corrige somando a diferença em vez de gravar o valor recontado.
+     */
+    static class Counters {
+
+        private final String update;
+        private final String insert;
+        private final boolean withTotal;
+
+        Counters(String update, String insert, boolean withTotal) {
+            this.update = update;
+            this.insert = insert;
+            this.withTotal = withTotal;
+        }
+
+        void apply(Connection conn, Map<List<Object>, long[]> deltas) throws SQLException {
+            for (Map.Entry<List<Object>, long[]> entry : deltas.entrySet()) {
+                add(conn, entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+            }
+        }
+
+        void add(Connection conn, List<Object> key, long total, long open) throws SQLException {
+            if (total == 0 && open == 0) {
+                return;
+            }
+            if (execute(conn, update, key, total, open) > 0) {
+                return;
+            }
+            try {
+                execute(conn, insert, key, total, open);
+            } catch (SQLException e) {
+                // outra transação criou a linha entre o update e o insert
+                if (e.getErrorCode() != ErrorCode.DUPLICATE_KEY_1) {
+                    throw e;
+                }
+                execute(conn, update, key, total, open);
+            }
+        }
+
+        private int execute(Connection conn, String sql, List<Object> key, long total, long open) throws SQLException {
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                int index = 1;
+                if (withTotal) {
+                    statement.setLong(index++, total);
+                }
+                statement.setLong(index++, open);
+                for (Object part : key) {
+                    statement.setObject(index++, part);
+                }
+                return statement.executeUpdate();
+            }
+        }
+    }
+}
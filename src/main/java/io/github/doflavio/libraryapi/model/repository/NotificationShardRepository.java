@@ -0,0 +1,61 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.NotificationShard;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationShardRepository extends JpaRepository<NotificationShard, Long> {
+
+    boolean existsByRunDate(LocalDate runDate);
+
+    boolean existsByFinishedFalse();
+
+    // faixas de noites anteriores que ninguém está processando; as com lock vigente continuam com o dono
+    @Modifying
+    @Transactional
+    @Query(" delete from NotificationShard s where s.runDate < :runDate " +
+            " and ( s.finished = true or s.lockedUntil is null or s.lockedUntil < :now ) ")
+    int deleteInactiveBefore(@Param("runDate") LocalDate runDate, @Param("now") LocalDateTime now);
+
+    @Query(" select max(s.toId) from NotificationShard s where s.finished = false ")
+    Long findLastUnfinishedId();
+
+    @Query(" select s.id from NotificationShard s where s.finished = false " +
+            " and ( s.lockedUntil is null or s.lockedUntil < :now ) order by s.id ")
+    List<Long> findClaimableIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query(" update NotificationShard s set s.owner = :owner, s.lockedUntil = :until where s.id = :id " +
+            " and s.finished = false and ( s.lockedUntil is null or s.lockedUntil < :now ) ")
+    int claim(
+            @Param("id") Long id
+            , @Param("owner") String owner
+            , @Param("now") LocalDateTime now
+            , @Param("until") LocalDateTime until);
+
+    // grava o progresso e renova o lock; 0 linhas = a faixa foi retomada por outra instância
+    @Modifying
+    @Transactional
+    @Query(" update NotificationShard s set s.checkpointId = :checkpointId, s.lockedUntil = :until " +
+            " where s.id = :id and s.owner = :owner and s.finished = false ")
+    int checkpoint(
+            @Param("id") Long id
+            , @Param("owner") String owner
+            , @Param("checkpointId") Long checkpointId
+            , @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Transactional
+    @Query(" update NotificationShard s set s.finished = true, s.lockedUntil = null " +
+            " where s.id = :id and s.owner = :owner ")
+    int finish(@Param("id") Long id, @Param("owner") String owner);
+}
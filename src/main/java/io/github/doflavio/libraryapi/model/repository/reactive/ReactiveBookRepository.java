@@ -0,0 +1,33 @@
+package io.github.doflavio.libraryapi.model.repository.reactive;
+
+import io.github.doflavio.libraryapi.model.entity.reactive.BookRecord;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBookRepository extends ReactiveCrudRepository<BookRecord, Long> {
+
+    String FILTER = " where ( :title is null or lower(title) like concat(lower(:title), '%') ) " +
+            " and ( :author is null or lower(author) like concat(lower(:author), '%') ) " +
+            " and ( :isbn is null or lower(isbn) like concat(lower(:isbn), '%') ) ";
+
+    Mono<Boolean> existsByIsbn(String isbn);
+
+    Mono<BookRecord> findByIsbn(String isbn);
+
+    @Query(" select * from book " + FILTER + " order by id limit :size offset :offset ")
+    Flux<BookRecord> findFiltered(
+            @Param("title") String title
+            , @Param("author") String author
+            , @Param("isbn") String isbn
+            , @Param("size") int size
+            , @Param("offset") long offset);
+
+    @Query(" select count(id) from book " + FILTER)
+    Mono<Long> countFiltered(
+            @Param("title") String title
+            , @Param("author") String author
+            , @Param("isbn") String isbn);
+}
@@ -0,0 +1,15 @@
+package io.github.doflavio.libraryapi.model.repository.reactive;
+
+import io.github.doflavio.libraryapi.model.entity.reactive.CustomerRecord;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCustomerRepository extends ReactiveCrudRepository<CustomerRecord, Long> {
+
+    Mono<CustomerRecord> findByEmail(String email);
+
+    @Query(" select * from customer where name = :name and email is null order by id limit 1 ")
+    Mono<CustomerRecord> findFirstWithoutEmail(@Param("name") String name);
+}
@@ -0,0 +1,43 @@
+package io.github.doflavio.libraryapi.model.repository.reactive;
+
+import io.github.doflavio.libraryapi.model.entity.reactive.LoanRecord;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveLoanRepository extends ReactiveCrudRepository<LoanRecord, Long> {
+
+    // os aliases seguem os nomes das propriedades de LoanSummary em snake_case
+    String SUMMARY = " select l.id, l.customer, l.customer_email, b.id as book_id, b.isbn as book_isbn, " +
+            " b.title as book_title, b.author as book_author, l.version, b.version as book_version " +
+            " from loan l join book b on b.id = l.id_book ";
+
+    @Query(SUMMARY + " where b.isbn = :isbn or l.customer = :customer order by l.id limit :size offset :offset ")
+    Flux<LoanSummary> findSummariesByBookIsbnOrCustomer(
+            @Param("isbn") String isbn
+            , @Param("customer") String customer
+            , @Param("size") int size
+            , @Param("offset") long offset);
+
+    @Query(" select count(l.id) from loan l join book b on b.id = l.id_book where b.isbn = :isbn or l.customer = :customer ")
+    Mono<Long> countSummariesByBookIsbnOrCustomer(
+            @Param("isbn") String isbn
+            , @Param("customer") String customer);
+
+    @Query(SUMMARY + " where b.isbn = :isbn or l.customer = :customer order by l.id ")
+    Flux<LoanSummary> streamSummariesByBookIsbnOrCustomer(
+            @Param("isbn") String isbn
+            , @Param("customer") String customer);
+
+    @Query(SUMMARY + " where b.id = :bookId order by l.id limit :size offset :offset ")
+    Flux<LoanSummary> findSummariesByBookId(
+            @Param("bookId") Long bookId
+            , @Param("size") int size
+            , @Param("offset") long offset);
+
+    @Query(" select count(id) from loan where id_book = :bookId ")
+    Mono<Long> countByBookId(@Param("bookId") Long bookId);
+}
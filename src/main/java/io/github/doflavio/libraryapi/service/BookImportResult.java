@@ -0,0 +1,26 @@
+package io.github.doflavio.libraryapi.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookImportResult {
+
+    public enum Status { CREATED, DUPLICATED, INVALID }
+
+    // posição do livro na entrada a partir de 1, sem contar o cabeçalho do CSV nem as linhas em branco
+    private long position;
+
+    private String isbn;
+
+    private Long id;
+
+    private Status status;
+
+    private String message;
+}
@@ -0,0 +1,15 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BookImportService {
+
+    /**
+     * Importa os livros na ordem recebida, em blocos de application.books.import.batch-size.
+     * Um elemento nulo representa uma linha que não pôde ser lida e volta como INVALID.
+     */
+    List<BookImportResult> importBooks(Stream<Book> books);
+}
@@ -1,10 +1,15 @@
 package io.github.doflavio.libraryapi.service;
 
 import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.service.search.Suggestion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface BookService {
     Book save(Book any);
@@ -17,5 +22,13 @@ public interface BookService {
 
     Page<Book> find(Book filter, Pageable pageRequest);
 
+    Slice<Book> findAfter(Book filter, Long afterId, int size);
+
+    List<Book> search(String text, int size);
+
+    List<Suggestion> suggest(String prefix, int size);
+
     Optional<Book> getBookByIsbn(String isbn);
+
+    Set<Long> getExistingIds(Collection<Long> ids);
 }
@@ -0,0 +1,18 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.model.entity.Customer;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CustomerService {
+
+    Optional<Customer> getById(Long id);
+
+    Optional<Customer> getByEmail(String email);
+
+    Customer resolve(String name, String email);
+
+    void assignCustomers(List<Loan> loans);
+}
@@ -4,5 +4,5 @@ import java.util.List;
 
 public interface EmailService {
 
-    void sendMails(String message, List<String> mailList);
+    MailDispatchReport sendMails(String message, List<String> mailList);
 }
@@ -0,0 +1,27 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.model.entity.NotificationShard;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface JobCoordinationService {
+
+    boolean tryAcquireLease(String job);
+
+    void releaseLease(String job);
+
+    boolean isLeaseHeld(String job);
+
+    boolean hasShards(LocalDate runDate);
+
+    int createShards(LocalDate runDate, int maxAttempts, int count);
+
+    Optional<NotificationShard> claimShard();
+
+    boolean checkpoint(NotificationShard shard, long lastId);
+
+    void finishShard(NotificationShard shard);
+
+    boolean hasUnfinishedShards();
+}
@@ -0,0 +1,35 @@
+package io.github.doflavio.libraryapi.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanBatchResult {
+
+    @Builder.Default
+    private List<Long> succeeded = new ArrayList<>();
+
+    @Builder.Default
+    private List<Failure> failed = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Failure {
+
+        // id do empréstimo na devolução; na retirada o empréstimo não existe e vai só o isbn
+        private Long id;
+
+        private String isbn;
+
+        private String message;
+    }
+}
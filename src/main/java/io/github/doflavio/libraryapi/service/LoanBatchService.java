@@ -0,0 +1,18 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.model.entity.Loan;
+
+import java.util.List;
+
+public interface LoanBatchService {
+
+    /**
+     * Marca os empréstimos como devolvidos; ids inexistentes ou já devolvidos voltam em failed.
+     */
+    LoanBatchResult returnLoans(List<Long> ids);
+
+    /**
+     * Cria os empréstimos dos livros informados (pelo isbn de cada book) com a data de hoje.
+     */
+    LoanBatchResult checkout(List<Loan> loans);
+}
@@ -3,11 +3,15 @@ package io.github.doflavio.libraryapi.service;
 import io.github.doflavio.libraryapi.api.dto.LoanFilterDTO;
 import io.github.doflavio.libraryapi.model.entity.Book;
 import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 
 public interface LoanService {
     Loan save(Loan loan);
@@ -16,9 +20,26 @@ public interface LoanService {
 
     Loan update(Loan loan);
 
+    Loan renew(Loan loan);
+
+    boolean isBookAvailable(Long bookId);
+
     Page<Loan> find(LoanFilterDTO filterDTO, Pageable pageable);
 
     Page<Loan> getLoansByBook(Book book, Pageable pageable);
 
+    Page<LoanSummary> findSummaries(LoanFilterDTO filterDTO, Pageable pageable);
+
+    Page<LoanSummary> getLoanSummariesByBook(Long bookId, Pageable pageable);
+
+    Slice<LoanSummary> findSummariesAfter(LoanFilterDTO filterDTO, Long afterId, int size);
+
+    Slice<LoanSummary> getLoanSummariesByCustomer(Long customerId, Long afterId, int size);
+
     List<Loan> getAllLateLoans();
+
+    int enqueueLateLoanNotifications();
+
+    void drainLateLoanNotifications(long afterId, long toId, int chunkSize, int maxAttempts,
+                                    Function<List<String>, List<String>> sender, LongPredicate checkpoint);
 }
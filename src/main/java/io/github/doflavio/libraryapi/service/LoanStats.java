@@ -0,0 +1,28 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.model.entity.BookLoanStats;
+import io.github.doflavio.libraryapi.model.entity.CustomerLoanStats;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanStats {
+
+    private long openLoans;
+
+    private long overdueLoans;
+
+    @Builder.Default
+    private List<BookLoanStats> topBooks = new ArrayList<>();
+
+    @Builder.Default
+    private List<CustomerLoanStats> topCustomers = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.model.entity.BookLoanStats;
+import io.github.doflavio.libraryapi.model.entity.CustomerLoanStats;
+
+import java.util.Optional;
+
+public interface LoanStatsService {
+
+    LoanStats getStats(int top);
+
+    Optional<BookLoanStats> getBookStats(Long bookId);
+
+    Optional<CustomerLoanStats> getCustomerStats(Long customerId);
+
+    int reconcile();
+}
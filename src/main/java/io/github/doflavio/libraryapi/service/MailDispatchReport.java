@@ -0,0 +1,23 @@
+package io.github.doflavio.libraryapi.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MailDispatchReport {
+
+    private int batches;
+
+    private int sent;
+
+    private List<String> failedRecipients;
+
+    private long elapsedMillis;
+}
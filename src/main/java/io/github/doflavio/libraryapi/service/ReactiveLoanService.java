@@ -0,0 +1,29 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.api.dto.LoanFilterDTO;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versão não bloqueante do {@link LoanService}, usada no perfil reactive.
+ */
+public interface ReactiveLoanService {
+    Mono<Loan> save(Loan loan);
+
+    Mono<Loan> getById(Long id);
+
+    Mono<Loan> update(Loan loan);
+
+    Mono<Page<LoanSummary>> findSummaries(LoanFilterDTO filterDTO, Pageable pageable);
+
+    /**
+     * Todos os empréstimos do filtro, lidos do banco conforme o consumidor pede.
+     */
+    Flux<LoanSummary> streamSummaries(LoanFilterDTO filterDTO);
+
+    Mono<Page<LoanSummary>> getLoanSummariesByBook(Long bookId, Pageable pageable);
+}
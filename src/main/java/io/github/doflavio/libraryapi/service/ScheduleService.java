@@ -1,33 +1,149 @@
 package io.github.doflavio.libraryapi.service;
 
-import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.entity.NotificationShard;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.LocalDate;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ScheduleService {
 
     private static final String CRON_LATE_LOANS = "0 0 0 1/1 * ?";
+    private static final String LATE_LOANS_JOB = "late-loans";
+    private static final String CRON_LOAN_STATS = "0 30 0 1/1 * ?";
+    private static final String LOAN_STATS_JOB = "loan-stats";
 
     @Value("${application.mail.lateloans.message}")
     private String message;
 
+    @Value("${application.mail.lateloans.chunk-size}")
+    private int chunkSize;
+
+    @Value("${application.mail.lateloans.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${application.mail.lateloans.shards}")
+    private int shards;
+
+    @Value("${application.scheduler.poll-interval-ms}")
+    private long pollIntervalMillis;
+
+    @Value("${application.scheduler.prepare-attempts}")
+    private int prepareAttempts;
+
     private final LoanService loanService;
     private final EmailService emailService;
+    private final JobCoordinationService coordinationService;
+    private final LoanStatsService loanStatsService;
 
+    /**
+     * Roda em todas as instâncias. Quem obtém o lease enfileira os atrasados da noite e divide o outbox em faixas;
+     * depois todas reivindicam faixas até não sobrar nenhuma, inclusive as de uma instância que caiu no meio.
+     */
     @Scheduled(cron = CRON_LATE_LOANS)
+    @Timed("library.service")
     public void sendMailToLocateLoans(){
-        List<Loan> allLateLoans = loanService.getAllLateLoans();
+        LocalDate runDate = LocalDate.now();
+        if (coordinationService.tryAcquireLease(LATE_LOANS_JOB)) {
+            try {
+                prepareLateLoansWithRetry(runDate);
+            } finally {
+                coordinationService.releaseLease(LATE_LOANS_JOB);
+            }
+        }
+
+        while (true) {
+            Optional<NotificationShard> shard = coordinationService.claimShard();
+            if (shard.isPresent()) {
+                mailShard(shard.get());
+            } else if (!coordinationService.isLeaseHeld(LATE_LOANS_JOB) && !coordinationService.hasUnfinishedShards()) {
+                break;
+            } else if (!pause()) {
+                break;
+            }
+        }
+    }
 
-        List<String> mailList = allLateLoans.stream().map(
-                loan -> loan.getCustomerEmail()).collect(Collectors.toList());
+    // depois do envio dos atrasados; só a instância que obtém o lease recalcula
+    @Scheduled(cron = CRON_LOAN_STATS)
+    @Timed("library.service")
+    public void reconcileLoanStats(){
+        if (!coordinationService.tryAcquireLease(LOAN_STATS_JOB)) {
+            return;
+        }
+        try {
+            int corrected = loanStatsService.reconcile();
+            log.info(" loan stats reconciled, {} counters corrected ", corrected);
+        } finally {
+            coordinationService.releaseLease(LOAN_STATS_JOB);
+        }
+    }
+
+    // as outras instâncias esperam enquanto o lease estiver com esta, então a falha é tentada de novo aqui mesmo
+    private void prepareLateLoansWithRetry(LocalDate runDate) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                prepareLateLoans(runDate);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= prepareAttempts || !pause() || !coordinationService.tryAcquireLease(LATE_LOANS_JOB)) {
+                    log.error(" late loans preparation failed after {} attempts ", attempt, e);
+                    return;
+                }
+                log.warn(" late loans preparation failed (attempt {} of {}), retrying ", attempt, prepareAttempts, e);
+            }
+        }
+    }
+
+    private void prepareLateLoans(LocalDate runDate) {
+        // outra instância já preparou esta noite e liberou o lease
+        if (coordinationService.hasShards(runDate)) {
+            return;
+        }
+        int enqueued = loanService.enqueueLateLoanNotifications();
+        // o enfileiramento pode passar do lease-ms: renova antes de dividir, ou desiste se outra instância assumiu
+        if (!coordinationService.tryAcquireLease(LATE_LOANS_JOB)) {
+            log.warn(" late loans lease lost while enqueueing, {} loans enqueued, leaving the split to the new owner ", enqueued);
+            return;
+        }
+        int created;
+        try {
+            created = coordinationService.createShards(runDate, maxAttempts, shards);
+        } catch (DataIntegrityViolationException e) {
+            log.warn(" late loans already split by another instance ");
+            return;
+        }
+        log.info(" {} loans became late since the last run, pending notifications split in {} shards ", enqueued, created);
+    }
+
+    private void mailShard(NotificationShard shard) {
+        loanService.drainLateLoanNotifications(shard.getCheckpointId(), shard.getToId(), chunkSize, maxAttempts,
+                mailList -> {
+                    MailDispatchReport report = emailService.sendMails(message, mailList);
+                    log.info(" late loans chunk mailed: {} sent, {} failed in {} batches ({} ms) ",
+                            report.getSent(), report.getFailedRecipients().size(), report.getBatches(), report.getElapsedMillis());
+                    return report.getFailedRecipients();
+                },
+                lastId -> coordinationService.checkpoint(shard, lastId));
+        coordinationService.finishShard(shard);
+    }
 
-        emailService.sendMails(message,mailList);
+    private boolean pause() {
+        try {
+            Thread.sleep(pollIntervalMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 }
@@ -0,0 +1,55 @@
+package io.github.doflavio.libraryapi.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Component
+public class BookIsbnCache implements MeterBinder {
+
+    public static final String CACHE_NAME = "books.isbn";
+
+    // Caffeine usa W-TinyLFU para decidir o que sai quando o limite é atingido
+    private final Cache<String, Long> cache;
+
+    public BookIsbnCache(@Value("${application.cache.isbn.maximum-size}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Long> getBookId(String isbn) {
+        if (isbn == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(isbn));
+    }
+
+    public boolean contains(String isbn) {
+        return getBookId(isbn).isPresent();
+    }
+
+    public void put(String isbn, Long bookId) {
+        if (isbn != null && bookId != null) {
+            cache.put(isbn, bookId);
+        }
+    }
+
+    public void evict(String isbn) {
+        if (isbn != null) {
+            cache.invalidate(isbn);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+}
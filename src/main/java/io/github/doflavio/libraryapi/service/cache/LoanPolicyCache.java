@@ -0,0 +1,94 @@
+package io.github.doflavio.libraryapi.service.cache;
+
+import io.github.doflavio.libraryapi.model.entity.LoanPolicy;
+import io.github.doflavio.libraryapi.model.repository.LoanPolicyRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Todas as regras de empréstimo em memória: a tabela é pequena e muda pouco, então é relida inteira
+ * periodicamente e trocada de uma vez, sem consulta no caminho da criação do empréstimo.
+ */
+@Component
+public class LoanPolicyCache implements MeterBinder {
+
+    // usada só se a linha padrão for apagada da tabela: atrasado a partir do 4º dia
+    static final LoanPolicy FALLBACK = LoanPolicy.builder().loanDays(3).build();
+
+    private final LoanPolicyRepository repository;
+    private volatile Policies policies = new Policies(new HashMap<>(), new HashMap<>(), FALLBACK);
+
+    public LoanPolicyCache(LoanPolicyRepository repository) {
+        this.repository = repository;
+    }
+
+    public LoanPolicy policyFor(Long bookId, Long customerId) {
+        Policies current = policies;
+        LoanPolicy policy = bookId == null ? null : current.byBook.get(bookId);
+        if (policy == null && customerId != null) {
+            policy = current.byCustomer.get(customerId);
+        }
+        return policy == null ? current.fallback : policy;
+    }
+
+    public LocalDate dueDate(Long bookId, Long customerId, LocalDate loanDate) {
+        LoanPolicy policy = policyFor(bookId, customerId);
+        return loanDate.plusDays(policy.getLoanDays() + policy.getGraceDays());
+    }
+
+    public int size() {
+        Policies current = policies;
+        return current.byBook.size() + current.byCustomer.size() + 1;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${application.loans.policy-refresh-ms}")
+    public void refresh() {
+        List<LoanPolicy> all = repository.findAll();
+        all.sort(Comparator.comparing(LoanPolicy::getId));
+
+        Map<Long, LoanPolicy> byBook = new HashMap<>();
+        Map<Long, LoanPolicy> byCustomer = new HashMap<>();
+        LoanPolicy fallback = null;
+        for (LoanPolicy policy : all) {
+            if (policy.getBookId() != null) {
+                byBook.put(policy.getBookId(), policy);
+            } else if (policy.getCustomerId() != null) {
+                byCustomer.put(policy.getCustomerId(), policy);
+            } else if (fallback == null) {
+                fallback = policy;
+            }
+        }
+        policies = new Policies(byBook, byCustomer, fallback == null ? FALLBACK : fallback);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("library.loans.policies", this, LoanPolicyCache::size)
+                .description("Regras de empréstimo no cache em memória")
+                .register(registry);
+    }
+
+    private static final class Policies {
+
+        private final Map<Long, LoanPolicy> byBook;
+        private final Map<Long, LoanPolicy> byCustomer;
+        private final LoanPolicy fallback;
+
+        private Policies(Map<Long, LoanPolicy> byBook, Map<Long, LoanPolicy> byCustomer, LoanPolicy fallback) {
+            this.byBook = byBook;
+            this.byCustomer = byCustomer;
+            this.fallback = fallback;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.doflavio.libraryapi.service.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Ids dos livros com empréstimo em aberto, num bitmap comprimido (Roaring) mantido em memória.
+ * Reflete apenas as escritas feitas por esta instância depois do último rebuild: com várias instâncias, "emprestado"
+ * pode estar atrasado até o próximo rebuild e "livre" precisa ser confirmado na base (LoanServiceImpl.isBookAvailable).
+ */
+@Component
+public class OpenLoanIndex implements MeterBinder {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Roaring64NavigableMap loanedBooks = new Roaring64NavigableMap();
+
+    public boolean isLoaned(Long bookId) {
+        if (bookId == null) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return loanedBooks.contains(bookId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void markLoaned(Long bookId) {
+        if (bookId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            loanedBooks.addLong(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void markReturned(Long bookId) {
+        if (bookId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            loanedBooks.removeLong(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return loanedBooks.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Monta um bitmap novo com os ids entregues pelo loader e troca o atual de uma vez.
+     */
+    public void rebuild(Consumer<LongConsumer> loader) {
+        Roaring64NavigableMap rebuilt = new Roaring64NavigableMap();
+        loader.accept(rebuilt::addLong);
+        rebuilt.runOptimize();
+
+        lock.writeLock().lock();
+        try {
+            loanedBooks = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("library.loans.open", this, OpenLoanIndex::size)
+                .description("Livros com empréstimo em aberto no índice em memória")
+                .register(registry);
+    }
+}
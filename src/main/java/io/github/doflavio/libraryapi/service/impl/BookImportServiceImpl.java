@@ -0,0 +1,123 @@
+package io.github.doflavio.libraryapi.service.impl;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.repository.BookRepository;
+import io.github.doflavio.libraryapi.service.BookImportResult;
+import io.github.doflavio.libraryapi.service.BookImportResult.Status;
+import io.github.doflavio.libraryapi.service.BookImportService;
+import io.github.doflavio.libraryapi.service.search.BookSearchIndex;
+import io.github.doflavio.libraryapi.service.search.BookSuggester;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private BookRepository repository;
+    private BookSearchIndex searchIndex;
+    private BookSuggester suggester;
+    private int batchSize;
+
+    public BookImportServiceImpl(BookRepository repository,
+                                 BookSearchIndex searchIndex,
+                                 BookSuggester suggester,
+                                 @Value("${application.books.import.batch-size}") int batchSize) {
+        this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.suggester = suggester;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Timed("library.service")
+    public List<BookImportResult> importBooks(Stream<Book> books) {
+        List<BookImportResult> results = new ArrayList<>();
+        List<Book> chunk = new ArrayList<>(batchSize);
+        Iterator<Book> iterator = books.iterator();
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == batchSize) {
+                results.addAll(importChunk(chunk, results.size(), true));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(chunk, results.size(), true));
+        }
+        // uma importação grande não deve ficar esperando o próximo ciclo fora do FST
+        suggester.rebuildIfChanged();
+        return results;
+    }
+
+    private List<BookImportResult> importChunk(List<Book> chunk, long offset, boolean retryOnConflict) {
+        // Uma única consulta por bloco para descobrir quais isbns já estão cadastrados
+        Set<String> isbns = chunk.stream()
+                .filter(this::isValid)
+                .map(Book::getIsbn)
+                .collect(Collectors.toSet());
+        Set<String> existing = isbns.isEmpty() ? Collections.emptySet() : repository.findExistingIsbns(isbns);
+
+        List<BookImportResult> results = new ArrayList<>(chunk.size());
+        List<Book> inserting = new ArrayList<>(chunk.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Book book = chunk.get(i);
+            BookImportResult result = BookImportResult.builder()
+                    .position(offset + i + 1)
+                    .isbn(book == null ? null : book.getIsbn())
+                    .build();
+            if (!isValid(book)) {
+                result.setStatus(Status.INVALID);
+                result.setMessage("title, author e isbn são obrigatórios.");
+            } else if (existing.contains(book.getIsbn()) || !seen.add(book.getIsbn())) {
+                result.setStatus(Status.DUPLICATED);
+                result.setMessage("isbn já cadastrado.");
+            } else {
+                result.setStatus(Status.CREATED);
+                inserting.add(book);
+            }
+            results.add(result);
+        }
+
+        Map<String, Long> ids;
+        try {
+            ids = repository.insertBatch(inserting);
+        } catch (DataIntegrityViolationException e) {
+            // outra requisição gravou algum desses isbns depois da consulta; o lote foi desfeito, refaz uma vez
+            if (retryOnConflict) {
+                return importChunk(chunk, offset, false);
+            }
+            throw e;
+        }
+        results.stream()
+                .filter(result -> result.getStatus() == Status.CREATED)
+                .forEach(result -> result.setId(ids.get(result.getIsbn())));
+        inserting.forEach(book -> book.setId(ids.get(book.getIsbn())));
+        searchIndex.indexAll(inserting);
+        inserting.forEach(suggester::add);
+        return results;
+    }
+
+    private boolean isValid(Book book) {
+        return book != null
+                && hasText(book.getTitle())
+                && hasText(book.getAuthor())
+                && hasText(book.getIsbn());
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
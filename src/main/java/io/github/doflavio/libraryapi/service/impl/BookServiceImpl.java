@@ -4,29 +4,67 @@ import io.github.doflavio.libraryapi.exception.BusinessException;
 import io.github.doflavio.libraryapi.model.entity.Book;
 import io.github.doflavio.libraryapi.model.repository.BookRepository;
 import io.github.doflavio.libraryapi.service.BookService;
+import io.github.doflavio.libraryapi.service.cache.BookIsbnCache;
+import io.github.doflavio.libraryapi.service.search.BookSearchIndex;
+import io.github.doflavio.libraryapi.service.search.BookSuggester;
+import io.github.doflavio.libraryapi.service.search.Suggestion;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class BookServiceImpl implements BookService {
 
     private BookRepository repository;
+    private BookIsbnCache isbnCache;
+    private BookSearchIndex searchIndex;
+    private BookSuggester suggester;
 
-    public BookServiceImpl(BookRepository repository){
+    public BookServiceImpl(BookRepository repository, BookIsbnCache isbnCache, BookSearchIndex searchIndex,
+                           BookSuggester suggester){
         this.repository = repository;
+        this.isbnCache = isbnCache;
+        this.searchIndex = searchIndex;
+        this.suggester = suggester;
+    }
+
+    @PostConstruct
+    public void rebuildSearchIndex() {
+        // uma leitura da tabela alimenta a busca e as sugestões
+        searchIndex.rebuild(indexer -> repository.forEachBook(book -> {
+            indexer.accept(book);
+            suggester.add(book);
+        }));
+        suggester.rebuild();
     }
 
     @Override
+    @Timed("library.service")
     public Optional<Book> getById(Long id){
         return this.repository.findById(id);
     }
 
     @Override
+    @Timed("library.service")
+    public Set<Long> getExistingIds(Collection<Long> ids) {
+        return ids.isEmpty() ? Collections.emptySet() : repository.findExistingIds(ids);
+    }
+
+    @Override
+    @Timed("library.service")
     public Page<Book> find(Book filter, Pageable pageRequest) {
         Example<Book> example = Example.of(filter,
                                              ExampleMatcher
@@ -38,32 +76,87 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @Timed("library.service")
+    public Slice<Book> findAfter(Book filter, Long afterId, int size) {
+        return repository.findSliceAfter(afterId, filter.getTitle(), filter.getAuthor(), filter.getIsbn(),
+                PageRequest.of(0, size));
+    }
+
+    @Override
+    @Timed("library.service")
+    public List<Book> search(String text, int size) {
+        return searchIndex.search(text, size);
+    }
+
+    @Override
+    @Timed("library.service")
+    public List<Suggestion> suggest(String prefix, int size) {
+        return suggester.suggest(prefix, size);
+    }
+
+    @Override
+    @Timed("library.service")
     public Optional<Book> getBookByIsbn(String isbn){
-        return repository.findByIsbn(isbn);
+        Optional<Long> cachedId = isbnCache.getBookId(isbn);
+        if(cachedId.isPresent()){
+            Optional<Book> book = repository.findById(cachedId.get())
+                    .filter(found -> isbn.equals(found.getIsbn()));
+            if(book.isPresent()){
+                return book;
+            }
+            isbnCache.evict(isbn);
+        }
+
+        Optional<Book> book = repository.findByIsbn(isbn);
+        book.ifPresent(found -> isbnCache.put(isbn, found.getId()));
+        return book;
     }
 
     @Override
+    @Timed("library.service")
     public Book save(Book book) {
-        if(repository.existsByIsbn(book.getIsbn())){
+        if(isbnCache.contains(book.getIsbn()) || repository.existsByIsbn(book.getIsbn())){
+            throw new BusinessException("isbn já cadastrado.");
+        }
+        Book savedBook;
+        try {
+            savedBook = repository.save(book);
+        } catch (DataIntegrityViolationException e) {
+            // outra requisição gravou o mesmo isbn entre a verificação e o insert (uk_book_isbn)
             throw new BusinessException("isbn já cadastrado.");
         }
-        return repository.save(book);
+        isbnCache.put(savedBook.getIsbn(), savedBook.getId());
+        searchIndex.index(savedBook);
+        suggester.add(savedBook);
+        return savedBook;
     }
 
     @Override
+    @Timed("library.service")
     public Book update(Book book) {
         if(book == null || book.getId() == null){
             throw new IllegalArgumentException("Book id cant be null");
         }
-        return this.repository.save(book);
+        isbnCache.evict(book.getIsbn());
+        // o livro recebido já pode estar alterado; o estado anterior vem do índice de busca
+        Optional<Book> previous = searchIndex.get(book.getId());
+        Book updatedBook = this.repository.save(book);
+        searchIndex.index(updatedBook);
+        previous.ifPresent(suggester::remove);
+        suggester.add(updatedBook);
+        return updatedBook;
     }
 
     @Override
+    @Timed("library.service")
     public void delete(Book book) {
         if(book == null || book.getId() == null){
             throw new IllegalArgumentException("Book id cant be null");
         }
+        isbnCache.evict(book.getIsbn());
         this.repository.delete(book);
+        searchIndex.get(book.getId()).ifPresent(suggester::remove);
+        searchIndex.remove(book.getId());
     }
 
 }
@@ -0,0 +1,93 @@
+package io.github.doflavio.libraryapi.service.impl;
+
+import io.github.doflavio.libraryapi.model.entity.Customer;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.repository.CustomerRepository;
+import io.github.doflavio.libraryapi.service.CustomerService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Encontra ou cria o cliente de cada empréstimo a partir do nome e do e-mail informados na retirada. O e-mail
+ * identifica o cliente (índice uk_customer_email); sem e-mail, o cliente é reaproveitado pelo nome.
+ */
+@Service
+public class CustomerServiceImpl implements CustomerService {
+
+    private CustomerRepository customerRepository;
+
+    public CustomerServiceImpl(CustomerRepository customerRepository) {
+        this.customerRepository = customerRepository;
+    }
+
+    @Override
+    @Timed("library.service")
+    public Optional<Customer> getById(Long id) {
+        return customerRepository.findById(id);
+    }
+
+    @Override
+    @Timed("library.service")
+    public Optional<Customer> getByEmail(String email) {
+        String normalized = Customer.normalizeEmail(email);
+        return normalized == null ? Optional.empty() : customerRepository.findByEmail(normalized);
+    }
+
+    @Override
+    @Timed("library.service")
+    public Customer resolve(String name, String email) {
+        String normalized = Customer.normalizeEmail(email);
+        Optional<Customer> found = normalized == null
+                ? customerRepository.findFirstByNameAndEmailIsNullOrderById(name)
+                : customerRepository.findByEmail(normalized);
+        return found.orElseGet(() -> create(name, normalized));
+    }
+
+    @Override
+    @Timed("library.service")
+    public void assignCustomers(List<Loan> loans) {
+        // uma consulta para todos os e-mails do lote; só os clientes novos custam um insert cada
+        Set<String> emails = loans.stream()
+                .map(loan -> Customer.normalizeEmail(loan.getCustomerEmail()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Long> idsByEmail = emails.isEmpty()
+                ? new HashMap<>()
+                : customerRepository.findByEmailIn(emails).stream()
+                        .collect(Collectors.toMap(Customer::getEmail, Customer::getId));
+        Map<String, Long> idsByName = new HashMap<>();
+
+        for (Loan loan : loans) {
+            if (loan.getCustomerId() != null) {
+                continue;
+            }
+            String email = Customer.normalizeEmail(loan.getCustomerEmail());
+            if (email != null) {
+                loan.setCustomerId(idsByEmail.computeIfAbsent(email, key -> resolve(loan.getCustomer(), key).getId()));
+            } else if (loan.getCustomer() != null) {
+                loan.setCustomerId(idsByName.computeIfAbsent(loan.getCustomer(), key -> resolve(key, null).getId()));
+            }
+        }
+    }
+
+    private Customer create(String name, String email) {
+        try {
+            return customerRepository.saveAndFlush(Customer.builder().name(name).email(email).build());
+        } catch (DataIntegrityViolationException e) {
+            // outra retirada criou o mesmo cliente entre a consulta e o insert
+            if (email == null) {
+                throw e;
+            }
+            return customerRepository.findByEmail(email).orElseThrow(() -> e);
+        }
+    }
+}
@@ -1,34 +1,163 @@
 package io.github.doflavio.libraryapi.service.impl;
 
 import io.github.doflavio.libraryapi.service.EmailService;
+import io.github.doflavio.libraryapi.service.MailDispatchReport;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class EmailServiceImpl implements EmailService {
 
+    private static final String SUBJECT = "Livro com empréstimo atrasado";
+
     @Value("${application.mail.default-remetent}")
     private String remetent;
 
+    @Value("${application.mail.dispatch.batch-size}")
+    private int batchSize;
+
+    @Value("${application.mail.dispatch.workers}")
+    private int workers;
+
+    @Value("${application.mail.dispatch.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${application.mail.dispatch.retry-backoff-ms}")
+    private long retryBackoffMillis;
+
     private final JavaMailSender javaMailSender;
+    private final MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        // Fila limitada: quando os workers estão ocupados quem submete envia o lote (backpressure)
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * 2),
+                new CustomizableThreadFactory("mail-dispatch-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
 
     @Override
-    public void sendMails(String message, List<String> mailList) {
+    @Timed("library.service")
+    public MailDispatchReport sendMails(String message, List<String> mailList) {
+        long start = System.nanoTime();
+        // um destinatário repetido recebe uma mensagem só e conta uma vez no relatório
+        List<String> recipients = new ArrayList<>(new LinkedHashSet<>(mailList));
+
+        List<Future<List<String>>> batches = new ArrayList<>();
+        for (int from = 0; from < recipients.size(); from += batchSize) {
+            List<String> batch = recipients.subList(from, Math.min(from + batchSize, recipients.size()));
+            batches.add(executor.submit(() -> sendBatch(message, batch)));
+        }
 
-        String[] mails = mailList.toArray(new String[mailList.size()]);
+        List<String> failedRecipients = new ArrayList<>();
+        for (Future<List<String>> batch : batches) {
+            try {
+                failedRecipients.addAll(batch.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Mail dispatch interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Mail dispatch failed", e.getCause());
+            }
+        }
 
+        return MailDispatchReport.builder()
+                .batches(batches.size())
+                .sent(recipients.size() - failedRecipients.size())
+                .failedRecipients(failedRecipients)
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .build();
+    }
+
+    private List<String> sendBatch(String message, List<String> batch) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        Map<String, SimpleMailMessage> pending = new LinkedHashMap<>();
+        batch.forEach(mail -> pending.put(mail, createMessage(message, mail)));
+
+        for (int attempt = 1; attempt <= maxAttempts && !pending.isEmpty(); attempt++) {
+            // latência de cada conversa com o SMTP, separada entre tentativas bem e mal sucedidas
+            Timer.Sample attemptSample = Timer.start(meterRegistry);
+            String outcome = "failure";
+            try {
+                javaMailSender.send(pending.values().toArray(new SimpleMailMessage[0]));
+                pending.clear();
+                outcome = "success";
+            } catch (MailSendException ex) {
+                // Só reenvia as mensagens que falharam; as demais já foram entregues ao SMTP
+                if (!ex.getFailedMessages().isEmpty()) {
+                    pending.values().retainAll(ex.getFailedMessages().keySet());
+                }
+                log.warn(" attempt {} failed for {} of {} mails: {} ", attempt, pending.size(), batch.size(), ex.getMessage());
+            } catch (MailException ex) {
+                log.warn(" attempt {} failed for {} mails: {} ", attempt, pending.size(), ex.getMessage());
+            } finally {
+                attemptSample.stop(meterRegistry.timer("library.mail.send", "outcome", outcome));
+            }
+
+            if (!pending.isEmpty() && attempt < maxAttempts && !backoff(attempt)) {
+                break;
+            }
+        }
+
+        int sent = batch.size() - pending.size();
+        sample.stop(meterRegistry.timer("library.mail.batch"));
+        meterRegistry.counter("library.mail.sent").increment(sent);
+        meterRegistry.counter("library.mail.failed").increment(pending.size());
+        log.info(" mail batch finished: {} sent, {} failed ", sent, pending.size());
+
+        return new ArrayList<>(pending.keySet());
+    }
+
+    private boolean backoff(int attempt) {
+        try {
+            Thread.sleep(retryBackoffMillis << (attempt - 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private SimpleMailMessage createMessage(String message, String mail) {
         SimpleMailMessage mailMessage = new SimpleMailMessage();
         mailMessage.setFrom(remetent);
-        mailMessage.setSubject("Livro com empréstimo atrasado");
+        mailMessage.setSubject(SUBJECT);
         mailMessage.setText(message);
-        mailMessage.setTo(mails);
-
-        javaMailSender.send(mailMessage);
+        mailMessage.setTo(mail);
+        return mailMessage;
     }
 }
@@ -0,0 +1,135 @@
+package io.github.doflavio.libraryapi.service.impl;
+
+import io.github.doflavio.libraryapi.model.entity.NotificationShard;
+import io.github.doflavio.libraryapi.model.repository.JobLeaseRepository;
+import io.github.doflavio.libraryapi.model.repository.LateLoanNotificationRepository;
+import io.github.doflavio.libraryapi.model.repository.NotificationShardRepository;
+import io.github.doflavio.libraryapi.service.JobCoordinationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Coordena as instâncias pelo banco, sem serviço externo: um lease por tarefa e faixas de trabalho reivindicadas
+ * com update condicional. Um lock vencido (instância que caiu ou travou) pode ser tomado por qualquer outra.
+ * As faixas de uma noite são criadas numa transação só; o índice uk_notification_shard_run_from recusa uma
+ * segunda divisão da mesma noite.
+ */
+@Service
+public class JobCoordinationServiceImpl implements JobCoordinationService {
+
+    private static final int CLAIM_CANDIDATES = 4;
+
+    private JobLeaseRepository leaseRepository;
+    private NotificationShardRepository shardRepository;
+    private LateLoanNotificationRepository notificationRepository;
+    private String nodeId;
+    private long leaseMillis;
+
+    public JobCoordinationServiceImpl(JobLeaseRepository leaseRepository,
+                                      NotificationShardRepository shardRepository,
+                                      LateLoanNotificationRepository notificationRepository,
+                                      @Value("${application.scheduler.node-id}") String nodeId,
+                                      @Value("${application.scheduler.lease-ms}") long leaseMillis) {
+        this.leaseRepository = leaseRepository;
+        this.shardRepository = shardRepository;
+        this.notificationRepository = notificationRepository;
+        this.nodeId = nodeId;
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Override
+    public boolean tryAcquireLease(String job) {
+        LocalDateTime now = LocalDateTime.now();
+        return leaseRepository.acquire(job, nodeId, now, lockedUntil(now)) == 1;
+    }
+
+    @Override
+    public void releaseLease(String job) {
+        leaseRepository.release(job, nodeId, LocalDateTime.now());
+    }
+
+    @Override
+    public boolean isLeaseHeld(String job) {
+        return leaseRepository.isHeld(job, LocalDateTime.now());
+    }
+
+    @Override
+    public boolean hasShards(LocalDate runDate) {
+        return shardRepository.existsByRunDate(runDate);
+    }
+
+    @Override
+    @Transactional
+    public int createShards(LocalDate runDate, int maxAttempts, int count) {
+        shardRepository.deleteInactiveBefore(runDate, LocalDateTime.now());
+
+        Long firstId = notificationRepository.findFirstPendingId(maxAttempts);
+        Long lastId = notificationRepository.findLastPendingId(maxAttempts);
+        if (firstId == null) {
+            return 0;
+        }
+        // faixas de noites anteriores ainda em andamento ficam com seus donos; a noite começa depois delas
+        Long unfinishedId = shardRepository.findLastUnfinishedId();
+        if (unfinishedId != null) {
+            firstId = Math.max(firstId, unfinishedId + 1);
+        }
+        if (firstId > lastId) {
+            return 0;
+        }
+
+        long size = (lastId - firstId) / count + 1;
+        List<NotificationShard> shards = new ArrayList<>();
+        for (long from = firstId; from <= lastId; from += size) {
+            shards.add(NotificationShard.builder()
+                    .runDate(runDate)
+                    .fromId(from)
+                    .toId(Math.min(from + size - 1, lastId))
+                    .checkpointId(from - 1)
+                    .build());
+        }
+        shardRepository.saveAll(shards);
+        return shards.size();
+    }
+
+    @Override
+    public Optional<NotificationShard> claimShard() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = lockedUntil(now);
+        // Outra instância pode reivindicar o mesmo candidato entre a consulta e o update: tenta o próximo
+        for (Long id : shardRepository.findClaimableIds(now, PageRequest.of(0, CLAIM_CANDIDATES))) {
+            if (shardRepository.claim(id, nodeId, now, until) == 1) {
+                return shardRepository.findById(id);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean checkpoint(NotificationShard shard, long lastId) {
+        LocalDateTime until = lockedUntil(LocalDateTime.now());
+        return shardRepository.checkpoint(shard.getId(), nodeId, lastId, until) == 1;
+    }
+
+    @Override
+    public void finishShard(NotificationShard shard) {
+        shardRepository.finish(shard.getId(), nodeId);
+    }
+
+    @Override
+    public boolean hasUnfinishedShards() {
+        return shardRepository.existsByFinishedFalse();
+    }
+
+    private LocalDateTime lockedUntil(LocalDateTime now) {
+        return now.plus(leaseMillis, ChronoUnit.MILLIS);
+    }
+}
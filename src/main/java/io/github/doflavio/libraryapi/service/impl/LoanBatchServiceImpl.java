@@ -0,0 +1,174 @@
+package io.github.doflavio.libraryapi.service.impl;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.projection.OpenLoan;
+import io.github.doflavio.libraryapi.model.repository.BookRepository;
+import io.github.doflavio.libraryapi.model.repository.LoanRepository;
+import io.github.doflavio.libraryapi.service.LoanBatchResult;
+import io.github.doflavio.libraryapi.service.LoanBatchResult.Failure;
+import io.github.doflavio.libraryapi.service.CustomerService;
+import io.github.doflavio.libraryapi.service.LoanBatchService;
+import io.github.doflavio.libraryapi.service.cache.LoanPolicyCache;
+import io.github.doflavio.libraryapi.service.cache.OpenLoanIndex;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class LoanBatchServiceImpl implements LoanBatchService {
+
+    private LoanRepository loanRepository;
+    private BookRepository bookRepository;
+    private OpenLoanIndex openLoanIndex;
+    private LoanPolicyCache loanPolicyCache;
+    private CustomerService customerService;
+    private int batchSize;
+
+    public LoanBatchServiceImpl(LoanRepository loanRepository,
+                                BookRepository bookRepository,
+                                OpenLoanIndex openLoanIndex,
+                                LoanPolicyCache loanPolicyCache,
+                                CustomerService customerService,
+                                @Value("${application.loans.batch-size}") int batchSize) {
+        this.loanRepository = loanRepository;
+        this.bookRepository = bookRepository;
+        this.openLoanIndex = openLoanIndex;
+        this.loanPolicyCache = loanPolicyCache;
+        this.customerService = customerService;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Timed("library.service")
+    @Transactional
+    public LoanBatchResult returnLoans(List<Long> ids) {
+        LoanBatchResult result = LoanBatchResult.builder().build();
+        List<Long> returnedBookIds = new ArrayList<>();
+        List<Long> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        for (List<Long> chunk : chunks(distinctIds)) {
+            // Trava as linhas ainda abertas para que só esta requisição as conte como devolvidas
+            List<OpenLoan> openLoans = loanRepository.findOpenLoansForUpdate(chunk);
+            List<Long> openIds = openLoans.stream().map(OpenLoan::getId).collect(Collectors.toList());
+            if (!openIds.isEmpty()) {
+                loanRepository.markReturned(openIds);
+            }
+            openLoans.forEach(loan -> returnedBookIds.add(loan.getBookId()));
+            result.getSucceeded().addAll(openIds);
+
+            Set<Long> returned = new HashSet<>(openIds);
+            chunk.stream()
+                    .filter(id -> !returned.contains(id))
+                    .forEach(id -> result.getFailed().add(new Failure(id, null, "Loan not found or already returned")));
+        }
+        afterCommit(() -> returnedBookIds.forEach(openLoanIndex::markReturned));
+        return result;
+    }
+
+    // o índice só é reconstruído na subida: um rollback depois de um bloco não pode deixar livros como devolvidos
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    @Timed("library.service")
+    public LoanBatchResult checkout(List<Loan> loans) {
+        LoanBatchResult result = LoanBatchResult.builder().build();
+        for (List<Loan> chunk : chunks(loans)) {
+            checkoutChunk(chunk, result, true);
+        }
+        return result;
+    }
+
+    private void checkoutChunk(List<Loan> chunk, LoanBatchResult result, boolean retryOnConflict) {
+        Set<String> isbns = chunk.stream()
+                .map(this::isbnOf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Long> bookIds = bookRepository.findIdsByIsbn(isbns);
+        Set<Long> loanedBookIds = bookIds.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(loanRepository.findOpenBookIds(bookIds.values()));
+
+        LocalDate today = LocalDate.now();
+        List<Loan> inserting = new ArrayList<>(chunk.size());
+        List<Failure> failures = new ArrayList<>();
+        for (Loan loan : chunk) {
+            String isbn = isbnOf(loan);
+            Long bookId = isbn == null ? null : bookIds.get(isbn);
+            if (bookId == null) {
+                failures.add(new Failure(null, isbn, "Book not found for passed isbn"));
+            } else if (!loanedBookIds.add(bookId)) {
+                failures.add(new Failure(null, isbn, "Book already loaned"));
+            } else {
+                inserting.add(Loan.builder()
+                        .customer(loan.getCustomer())
+                        .customerEmail(loan.getCustomerEmail())
+                        .book(Book.builder().id(bookId).isbn(isbn).build())
+                        .loanDate(today)
+                        .build());
+            }
+        }
+
+        // o cliente antes do prazo: a regra por cliente é chaveada pelo id
+        customerService.assignCustomers(inserting);
+        inserting.forEach(loan -> loan.setDueDate(loanPolicyCache.dueDate(loan.getBook().getId(), loan.getCustomerId(), today)));
+
+        List<Long> ids;
+        try {
+            ids = loanRepository.insertBatch(inserting);
+        } catch (DataIntegrityViolationException e) {
+            // outro empréstimo abriu um desses livros depois da consulta (uk_loan_open_book); refaz o bloco uma vez
+            if (retryOnConflict) {
+                checkoutChunk(chunk, result, false);
+                return;
+            }
+            throw e;
+        }
+        inserting.forEach(loan -> openLoanIndex.markLoaned(loan.getBook().getId()));
+        result.getSucceeded().addAll(ids);
+        result.getFailed().addAll(failures);
+    }
+
+    private String isbnOf(Loan loan) {
+        return loan.getBook() == null ? null : loan.getBook().getIsbn();
+    }
+
+    private <T> List<List<T>> chunks(List<T> items) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += batchSize) {
+            chunks.add(items.subList(from, Math.min(from + batchSize, items.size())));
+        }
+        return chunks;
+    }
+}
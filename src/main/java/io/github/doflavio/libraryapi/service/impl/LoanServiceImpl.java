@@ -3,59 +3,258 @@ package io.github.doflavio.libraryapi.service.impl;
 import io.github.doflavio.libraryapi.api.dto.LoanFilterDTO;
 import io.github.doflavio.libraryapi.exception.BusinessException;
 import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.Customer;
+import io.github.doflavio.libraryapi.model.entity.LateLoanNotification;
 import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.entity.LoanPolicy;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
+import io.github.doflavio.libraryapi.model.repository.LateLoanNotificationRepository;
 import io.github.doflavio.libraryapi.model.repository.LoanRepository;
+import io.github.doflavio.libraryapi.service.CustomerService;
 import io.github.doflavio.libraryapi.service.LoanService;
+import io.github.doflavio.libraryapi.service.cache.LoanPolicyCache;
+import io.github.doflavio.libraryapi.service.cache.OpenLoanIndex;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
 
 @Service
 public class LoanServiceImpl implements LoanService {
 
-
     private LoanRepository loanRepository;
+    private OpenLoanIndex openLoanIndex;
+    private LateLoanNotificationRepository notificationRepository;
+    private LoanPolicyCache loanPolicyCache;
+    private CustomerService customerService;
 
-    public LoanServiceImpl(LoanRepository loanRepository) {
+    public LoanServiceImpl(LoanRepository loanRepository, OpenLoanIndex openLoanIndex,
+                           LateLoanNotificationRepository notificationRepository, LoanPolicyCache loanPolicyCache,
+                           CustomerService customerService) {
         this.loanRepository = loanRepository;
+        this.openLoanIndex = openLoanIndex;
+        this.notificationRepository = notificationRepository;
+        this.loanPolicyCache = loanPolicyCache;
+        this.customerService = customerService;
+    }
+
+    // também descarta os livros que outras instâncias devolveram depois do último rebuild
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${application.loans.open-index-rebuild-ms}")
+    public void rebuildOpenLoanIndex() {
+        openLoanIndex.rebuild(loanRepository::forEachOpenBookId);
     }
 
     @Override
+    @Timed("library.service")
     public Loan save(Loan loan) {
-        if(loanRepository.existsByBookAndNotReturned(loan.getBook())){
-            throw new BusinessException("Book already loaned");
+        // o cliente antes do prazo: a regra por cliente é chaveada pelo id
+        customerService.assignCustomers(Collections.singletonList(loan));
+        if (loan.getDueDate() == null) {
+            loan.setDueDate(loanPolicyCache.dueDate(bookId(loan), loan.getCustomerId(), loan.getLoanDate()));
         }
-        return loanRepository.save(loan);
+        // Sem consulta prévia: o índice uk_loan_open_book rejeita um segundo empréstimo aberto no mesmo insert
+        Loan savedLoan;
+        try {
+            savedLoan = loanRepository.saveAndFlush(loan);
+        } catch (DataIntegrityViolationException e) {
+            throw OpenLoanViolations.translate(e);
+        }
+        refreshOpenLoanIndex(savedLoan);
+        return savedLoan;
     }
 
     @Override
+    @Timed("library.service")
     public Optional<Loan> getById(Long id) {
         return loanRepository.findById(id);
     }
 
     @Override
+    @Timed("library.service")
     public Loan update(Loan loan) {
+        // reabrir (returned = false) um livro que já voltou a ser emprestado esbarra em uk_loan_open_book
+        Loan updatedLoan;
+        try {
+            updatedLoan = loanRepository.saveAndFlush(loan);
+        } catch (DataIntegrityViolationException e) {
+            throw OpenLoanViolations.translate(e);
+        }
+        refreshOpenLoanIndex(updatedLoan);
+        return updatedLoan;
+    }
+
+    @Override
+    @Timed("library.service")
+    public Loan renew(Loan loan) {
+        LoanPolicy policy = loanPolicyCache.policyFor(bookId(loan), loan.getCustomerId());
+        if (loan.getReturned()) {
+            throw new BusinessException("Loan already returned");
+        }
+        if (loan.getDueDate().isBefore(LocalDate.now())) {
+            throw new BusinessException("Overdue loan can't be renewed");
+        }
+        if (loan.getRenewals() >= policy.getMaxRenewals()) {
+            throw new BusinessException("Renewal limit reached");
+        }
+        loan.setDueDate(loan.getDueDate().plusDays(policy.getLoanDays()));
+        loan.setRenewals(loan.getRenewals() + 1);
         return loanRepository.save(loan);
     }
 
     @Override
+    @Timed("library.service")
+    public boolean isBookAvailable(Long bookId) {
+        if (openLoanIndex.isLoaned(bookId)) {
+            return false;
+        }
+        // O índice só vê as escritas desta instância: um livro livre nele pode ter sido emprestado por outra
+        if (bookId != null && loanRepository.hasOpenLoan(bookId)) {
+            openLoanIndex.markLoaned(bookId);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    @Timed("library.service")
     public Page<Loan> find(LoanFilterDTO filterDTO, Pageable pageable) {
         return loanRepository.findByBookIsbnOrCustomer(filterDTO.getIsbn(),filterDTO.getCustomer(),pageable);
     }
 
     @Override
+    @Timed("library.service")
     public Page<Loan> getLoansByBook(Book book, Pageable pageable) {
         return loanRepository.findByBook(book,pageable);
     }
 
     @Override
+    @Timed("library.service")
+    public Page<LoanSummary> findSummaries(LoanFilterDTO filterDTO, Pageable pageable) {
+        return loanRepository.findSummariesByBookIsbnOrCustomer(filterDTO.getIsbn(), filterDTO.getCustomer(), pageable);
+    }
+
+    @Override
+    @Timed("library.service")
+    public Page<LoanSummary> getLoanSummariesByBook(Long bookId, Pageable pageable) {
+        return loanRepository.findSummariesByBookId(bookId, pageable);
+    }
+
+    @Override
+    @Timed("library.service")
+    public Slice<LoanSummary> findSummariesAfter(LoanFilterDTO filterDTO, Long afterId, int size) {
+        return loanRepository.findSummariesAfter(afterId, filterDTO.getIsbn(), filterDTO.getCustomer(),
+                PageRequest.of(0, size));
+    }
+
+    @Override
+    @Timed("library.service")
+    public Slice<LoanSummary> getLoanSummariesByCustomer(Long customerId, Long afterId, int size) {
+        return loanRepository.findSummariesByCustomerAfter(customerId, afterId, PageRequest.of(0, size));
+    }
+
+    private Long bookId(Loan loan) {
+        return loan.getBook() == null ? null : loan.getBook().getId();
+    }
+
+    private void refreshOpenLoanIndex(Loan loan) {
+        if (loan.getBook() == null) {
+            return;
+        }
+        if (loan.getReturned()) {
+            openLoanIndex.markReturned(loan.getBook().getId());
+        } else {
+            openLoanIndex.markLoaned(loan.getBook().getId());
+        }
+    }
+
+    @Override
+    @Timed("library.service")
     public List<Loan> getAllLateLoans() {
-        final Integer loanDays = 4;
-        LocalDate threeDaysAgo = LocalDate.now().minusDays(loanDays);
-        return loanRepository.findByLoanDateLessThanAndReturned(threeDaysAgo);
+        // due_date já traz o prazo e a carência de cada regra: uma faixa no índice idx_loan_returned_due_date
+        return loanRepository.findOverdue(LocalDate.now());
+    }
+
+    @Override
+    @Timed("library.service")
+    public int enqueueLateLoanNotifications() {
+        notificationRepository.deletePendingOfReturnedLoans();
+
+        // Só a faixa de prazos vencidos desde o último preenchimento: o prazo de um empréstimo novo (ou renovado)
+        // é sempre posterior à marca d'água, então cada empréstimo entra uma única vez, na noite em que atrasa
+        LocalDate since = Optional.ofNullable(notificationRepository.findLastDueDate()).orElse(LocalDate.EPOCH);
+        return notificationRepository.enqueueLateLoans(since, LocalDate.now(), LocalDateTime.now());
+    }
+
+    @Override
+    @Timed("library.service")
+    public void drainLateLoanNotifications(long afterId, long toId, int chunkSize, int maxAttempts,
+                                           Function<List<String>, List<String>> sender, LongPredicate checkpoint) {
+        PageRequest firstRows = PageRequest.of(0, chunkSize);
+
+        // Cada bloco é marcado logo depois do envio: se o processo cair no meio, só o bloco corrente é reenviado
+        Long lastId = afterId;
+        List<LateLoanNotification> chunk;
+        do {
+            chunk = notificationRepository.findPendingBetween(lastId, toId, maxAttempts, firstRows);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            // Um e-mail por cliente: as notificações do mesmo cliente no bloco seguem juntas
+            Map<Object, List<LateLoanNotification>> byCustomer = chunk.stream()
+                    .collect(Collectors.groupingBy(this::recipientOf, LinkedHashMap::new, Collectors.toList()));
+            Set<String> failedRecipients = new HashSet<>(sender.apply(byCustomer.values().stream()
+                    .map(group -> group.get(0).getCustomerEmail())
+                    .collect(Collectors.toList())));
+
+            List<Long> sent = new ArrayList<>();
+            List<Long> failed = new ArrayList<>();
+            Set<Long> mailedCustomers = new HashSet<>();
+            byCustomer.values().forEach(group -> {
+                LateLoanNotification first = group.get(0);
+                boolean delivered = !failedRecipients.contains(first.getCustomerEmail());
+                group.forEach(notification -> (delivered ? sent : failed).add(notification.getId()));
+                if (delivered && first.getCustomerId() != null) {
+                    mailedCustomers.add(first.getCustomerId());
+                }
+            });
+            LocalDateTime sentAt = LocalDateTime.now();
+            if (!sent.isEmpty()) {
+                notificationRepository.markSent(sent, sentAt);
+            }
+            if (!mailedCustomers.isEmpty()) {
+                // e as pendentes desses clientes em blocos ou faixas seguintes não geram um segundo e-mail
+                notificationRepository.markSentOfCustomers(mailedCustomers, sentAt);
+            }
+            if (!failed.isEmpty()) {
+                notificationRepository.markFailed(failed);
+            }
+            lastId = chunk.get(chunk.size() - 1).getId();
+        } while (checkpoint.test(lastId) && chunk.size() == chunkSize);
+    }
+
+    private Object recipientOf(LateLoanNotification notification) {
+        return notification.getCustomerId() != null
+                ? notification.getCustomerId()
+                : Customer.normalizeEmail(notification.getCustomerEmail());
     }
 }
@@ -0,0 +1,77 @@
+package io.github.doflavio.libraryapi.service.impl;
+
+import io.github.doflavio.libraryapi.model.entity.BookLoanStats;
+import io.github.doflavio.libraryapi.model.entity.CustomerLoanStats;
+import io.github.doflavio.libraryapi.model.repository.BookLoanStatsRepository;
+import io.github.doflavio.libraryapi.model.repository.CustomerLoanStatsRepository;
+import io.github.doflavio.libraryapi.model.repository.DueDateLoanStatsRepository;
+import io.github.doflavio.libraryapi.model.repository.LoanStatsReconciler;
+import io.github.doflavio.libraryapi.service.LoanStats;
+import io.github.doflavio.libraryapi.service.LoanStatsService;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Painel de empréstimos lido dos contadores que o trigger trg_loan_stats mantém a cada escrita em loan: nenhuma
+ * leitura agrega a tabela loan. A reconciliação corrige, somando a diferença, os contadores que divergirem de loan.
+ *
+ * Abertos e atrasados ainda são somas sobre due_date_loan_stats, não leituras O(1): custam uma linha por slot de cada
+ * prazo com empréstimo aberto. Os prazos passados zerados são apagados pela reconciliação noturna, então os atrasados
+ * crescem com a quantidade de dias distintos em que há empréstimo vencido, não com o histórico nem com a tabela loan.
+ */
+@Service
+@Slf4j
+public class LoanStatsServiceImpl implements LoanStatsService {
+
+    private BookLoanStatsRepository bookStatsRepository;
+    private CustomerLoanStatsRepository customerStatsRepository;
+    private DueDateLoanStatsRepository dueDateStatsRepository;
+    private LoanStatsReconciler reconciler;
+
+    public LoanStatsServiceImpl(BookLoanStatsRepository bookStatsRepository,
+                                CustomerLoanStatsRepository customerStatsRepository,
+                                DueDateLoanStatsRepository dueDateStatsRepository,
+                                LoanStatsReconciler reconciler) {
+        this.bookStatsRepository = bookStatsRepository;
+        this.customerStatsRepository = customerStatsRepository;
+        this.dueDateStatsRepository = dueDateStatsRepository;
+        this.reconciler = reconciler;
+    }
+
+    @Override
+    @Timed("library.service")
+    public LoanStats getStats(int top) {
+        PageRequest firsts = PageRequest.of(0, top);
+        return LoanStats.builder()
+                .openLoans(dueDateStatsRepository.sumOpenLoans())
+                .overdueLoans(dueDateStatsRepository.sumOpenLoansDueBefore(LocalDate.now()))
+                .topBooks(bookStatsRepository.findAllByOrderByTotalLoansDesc(firsts))
+                .topCustomers(customerStatsRepository.findAllByOrderByTotalLoansDesc(firsts))
+                .build();
+    }
+
+    @Override
+    public Optional<BookLoanStats> getBookStats(Long bookId) {
+        return bookStatsRepository.findById(bookId);
+    }
+
+    @Override
+    public Optional<CustomerLoanStats> getCustomerStats(Long customerId) {
+        return customerStatsRepository.findById(customerId);
+    }
+
+    @Override
+    @Timed("library.service")
+    public int reconcile() {
+        int corrected = reconciler.reconcile(LocalDate.now());
+        if (corrected > 0) {
+            log.warn(" loan stats reconciled: {} counters diverged from the loan table ", corrected);
+        }
+        return corrected;
+    }
+}
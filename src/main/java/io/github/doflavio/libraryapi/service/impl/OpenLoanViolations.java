@@ -0,0 +1,24 @@
+package io.github.doflavio.libraryapi.service.impl;
+
+import io.github.doflavio.libraryapi.exception.BusinessException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Traduz a violação do índice uk_loan_open_book (um empréstimo aberto por livro) na mesma BusinessException da
+ * validação, para o JPA e o R2DBC. As demais violações seguem como vieram.
+ */
+final class OpenLoanViolations {
+
+    private static final String OPEN_LOAN_CONSTRAINT = "UK_LOAN_OPEN_BOOK";
+
+    private OpenLoanViolations() {
+    }
+
+    static RuntimeException translate(DataIntegrityViolationException e) {
+        String cause = String.valueOf(e.getMostSpecificCause().getMessage()).toUpperCase();
+        if (cause.contains(OPEN_LOAN_CONSTRAINT)) {
+            return new BusinessException("Book already loaned");
+        }
+        return e;
+    }
+}
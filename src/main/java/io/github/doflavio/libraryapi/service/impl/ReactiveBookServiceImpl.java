@@ -0,0 +1,95 @@
+package io.github.doflavio.libraryapi.service.impl;
+
+import io.github.doflavio.libraryapi.exception.BusinessException;
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.reactive.BookRecord;
+import io.github.doflavio.libraryapi.model.repository.reactive.ReactiveBookRepository;
+import io.github.doflavio.libraryapi.service.ReactiveBookService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    private ReactiveBookRepository repository;
+
+    public ReactiveBookServiceImpl(ReactiveBookRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Mono<Book> save(Book book) {
+        BookRecord record = toRecord(book);
+        record.setId(null);
+        return repository.existsByIsbn(book.getIsbn())
+                .flatMap(exists -> exists
+                        ? Mono.<BookRecord>error(new BusinessException("isbn já cadastrado."))
+                        : repository.save(record))
+                // outra requisição gravou o mesmo isbn entre a verificação e o insert (uk_book_isbn)
+                .onErrorMap(DataIntegrityViolationException.class, e -> new BusinessException("isbn já cadastrado."))
+                .map(ReactiveBookServiceImpl::toBook);
+    }
+
+    @Override
+    public Mono<Book> getById(Long id) {
+        return repository.findById(id).map(ReactiveBookServiceImpl::toBook);
+    }
+
+    @Override
+    public Mono<Void> delete(Book book) {
+        if(book == null || book.getId() == null){
+            return Mono.error(new IllegalArgumentException("Book id cant be null"));
+        }
+        return repository.deleteById(book.getId());
+    }
+
+    @Override
+    public Mono<Book> update(Book book) {
+        if(book == null || book.getId() == null){
+            return Mono.error(new IllegalArgumentException("Book id cant be null"));
+        }
+        // o update leva a versão lida: se a linha mudou nesse meio tempo, OptimisticLockingFailureException
+        return repository.save(toRecord(book)).map(ReactiveBookServiceImpl::toBook);
+    }
+
+    @Override
+    public Mono<Page<Book>> find(Book filter, Pageable pageRequest) {
+        return repository.findFiltered(filter.getTitle(), filter.getAuthor(), filter.getIsbn(),
+                        pageRequest.getPageSize(), pageRequest.getOffset())
+                .map(ReactiveBookServiceImpl::toBook)
+                .collectList()
+                .zipWith(repository.countFiltered(filter.getTitle(), filter.getAuthor(), filter.getIsbn()),
+                        (content, total) -> new PageImpl<>(content, pageRequest, total));
+    }
+
+    @Override
+    public Mono<Book> getBookByIsbn(String isbn) {
+        return repository.findByIsbn(isbn).map(ReactiveBookServiceImpl::toBook);
+    }
+
+    private static BookRecord toRecord(Book book) {
+        return BookRecord.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .version(book.getVersion())
+                .build();
+    }
+
+    private static Book toBook(BookRecord record) {
+        return Book.builder()
+                .id(record.getId())
+                .title(record.getTitle())
+                .author(record.getAuthor())
+                .isbn(record.getIsbn())
+                .version(record.getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.doflavio.libraryapi.service.impl;
+
+import io.github.doflavio.libraryapi.api.dto.LoanFilterDTO;
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.Customer;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.entity.reactive.CustomerRecord;
+import io.github.doflavio.libraryapi.model.entity.reactive.LoanRecord;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
+import io.github.doflavio.libraryapi.model.repository.reactive.ReactiveCustomerRepository;
+import io.github.doflavio.libraryapi.model.repository.reactive.ReactiveLoanRepository;
+import io.github.doflavio.libraryapi.service.ReactiveLoanService;
+import io.github.doflavio.libraryapi.service.cache.LoanPolicyCache;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveLoanServiceImpl implements ReactiveLoanService {
+
+    private ReactiveLoanRepository loanRepository;
+    private ReactiveCustomerRepository customerRepository;
+    private LoanPolicyCache loanPolicyCache;
+
+    public ReactiveLoanServiceImpl(ReactiveLoanRepository loanRepository, ReactiveCustomerRepository customerRepository,
+                                   LoanPolicyCache loanPolicyCache) {
+        this.loanRepository = loanRepository;
+        this.customerRepository = customerRepository;
+        this.loanPolicyCache = loanPolicyCache;
+    }
+
+    @Override
+    public Mono<Loan> save(Loan loan) {
+        // Sem consulta prévia: o índice uk_loan_open_book rejeita um segundo empréstimo aberto no mesmo insert
+        return resolveCustomerId(loan)
+                .doOnNext(loan::setCustomerId)
+                .then(Mono.defer(() -> {
+                    if (loan.getDueDate() == null) {
+                        // só memória: a consulta ao cache não bloqueia o event loop
+                        loan.setDueDate(loanPolicyCache.dueDate(loan.getBook() == null ? null : loan.getBook().getId(),
+                                loan.getCustomerId(), loan.getLoanDate()));
+                    }
+                    return loanRepository.save(toRecord(loan));
+                }))
+                .onErrorMap(DataIntegrityViolationException.class, OpenLoanViolations::translate)
+                .map(saved -> toLoan(saved, loan.getBook()));
+    }
+
+    // mesma regra do CustomerServiceImpl: o e-mail identifica o cliente, sem e-mail vale o nome
+    private Mono<Long> resolveCustomerId(Loan loan) {
+        String email = Customer.normalizeEmail(loan.getCustomerEmail());
+        if (loan.getCustomerId() != null || (email == null && loan.getCustomer() == null)) {
+            return Mono.justOrEmpty(loan.getCustomerId());
+        }
+        Mono<CustomerRecord> found = email == null
+                ? customerRepository.findFirstWithoutEmail(loan.getCustomer())
+                : customerRepository.findByEmail(email);
+        return found
+                .switchIfEmpty(Mono.defer(() -> customerRepository
+                        .save(CustomerRecord.builder().name(loan.getCustomer()).email(email).build())
+                        // outra retirada criou o mesmo cliente entre a consulta e o insert
+                        .onErrorResume(DataIntegrityViolationException.class,
+                                e -> email == null ? Mono.error(e) : customerRepository.findByEmail(email))))
+                .map(CustomerRecord::getId);
+    }
+
+    @Override
+    public Mono<Loan> getById(Long id) {
+        return loanRepository.findById(id).map(record -> toLoan(record, Book.builder().id(record.getBookId()).build()));
+    }
+
+    @Override
+    public Mono<Loan> update(Loan loan) {
+        return loanRepository.save(toRecord(loan)).map(updated -> toLoan(updated, loan.getBook()));
+    }
+
+    @Override
+    public Mono<Page<LoanSummary>> findSummaries(LoanFilterDTO filterDTO, Pageable pageable) {
+        return loanRepository.findSummariesByBookIsbnOrCustomer(filterDTO.getIsbn(), filterDTO.getCustomer(),
+                        pageable.getPageSize(), pageable.getOffset())
+                .collectList()
+                .zipWith(loanRepository.countSummariesByBookIsbnOrCustomer(filterDTO.getIsbn(), filterDTO.getCustomer()),
+                        (content, total) -> new PageImpl<>(content, pageable, total));
+    }
+
+    @Override
+    public Flux<LoanSummary> streamSummaries(LoanFilterDTO filterDTO) {
+        return loanRepository.streamSummariesByBookIsbnOrCustomer(filterDTO.getIsbn(), filterDTO.getCustomer());
+    }
+
+    @Override
+    public Mono<Page<LoanSummary>> getLoanSummariesByBook(Long bookId, Pageable pageable) {
+        return loanRepository.findSummariesByBookId(bookId, pageable.getPageSize(), pageable.getOffset())
+                .collectList()
+                .zipWith(loanRepository.countByBookId(bookId),
+                        (content, total) -> new PageImpl<>(content, pageable, total));
+    }
+
+    private static LoanRecord toRecord(Loan loan) {
+        return LoanRecord.builder()
+                .id(loan.getId())
+                .customer(loan.getCustomer())
+                .customerEmail(loan.getCustomerEmail())
+                .customerId(loan.getCustomerId())
+                .bookId(loan.getBook() == null ? null : loan.getBook().getId())
+                .loanDate(loan.getLoanDate())
+                .dueDate(loan.getDueDate())
+                .renewals(loan.getRenewals())
+                .returned(loan.getReturned())
+                .version(loan.getVersion())
+                .build();
+    }
+
+    private static Loan toLoan(LoanRecord record, Book book) {
+        return Loan.builder()
+                .id(record.getId())
+                .customer(record.getCustomer())
+                .customerEmail(record.getCustomerEmail())
+                .customerId(record.getCustomerId())
+                .book(book)
+                .loanDate(record.getLoanDate())
+                .dueDate(record.getDueDate())
+                .renewals(record.getRenewals())
+                .returned(record.isReturned())
+                .version(record.getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,236 @@
+package io.github.doflavio.libraryapi.service.search;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.custom.CustomAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Índice invertido do catálogo (Lucene em memória) sobre title, author e isbn.
+ * Os termos são minúsculos e sem acento, então "memorias" encontra "Memórias".
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String AUTHOR = "author";
+    private static final String ISBN = "isbn";
+
+    private final Analyzer analyzer;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public BookSearchIndex() {
+        try {
+            this.analyzer = CustomAnalyzer.builder()
+                    .withTokenizer("standard")
+                    .addTokenFilter("lowercase")
+                    .addTokenFilter("asciiFolding")
+                    .build();
+            this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void index(Book book) {
+        indexAll(Collections.singletonList(book));
+    }
+
+    public void indexAll(Collection<Book> books) {
+        try {
+            for (Book book : books) {
+                if (book == null || book.getId() == null) {
+                    continue;
+                }
+                writer.updateDocument(new Term(ID, String.valueOf(book.getId())), toDocument(book));
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void remove(Long bookId) {
+        if (bookId == null) {
+            return;
+        }
+        try {
+            writer.deleteDocuments(new Term(ID, String.valueOf(bookId)));
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Descarta o índice atual e indexa tudo o que o loader entregar.
+     */
+    public void rebuild(Consumer<Consumer<Book>> loader) {
+        try {
+            writer.deleteAll();
+            loader.accept(book -> {
+                try {
+                    writer.addDocument(toDocument(book));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Livros ordenados por relevância (BM25): isbn exato primeiro, depois título e autor.
+     */
+    public List<Book> search(String text, int size) {
+        List<Book> books = new ArrayList<>();
+        Query query = toQuery(text);
+        if (query == null) {
+            return books;
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                for (ScoreDoc hit : searcher.search(query, size).scoreDocs) {
+                    books.add(toBook(searcher.doc(hit.doc)));
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return books;
+    }
+
+    /**
+     * Livro como está indexado agora, sem ir à base.
+     */
+    public Optional<Book> get(Long bookId) {
+        if (bookId == null) {
+            return Optional.empty();
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs found = searcher.search(new TermQuery(new Term(ID, String.valueOf(bookId))), 1);
+                if (found.scoreDocs.length == 0) {
+                    return Optional.empty();
+                }
+                return Optional.of(toBook(searcher.doc(found.scoreDocs[0].doc)));
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+    }
+
+    private Document toDocument(Book book) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(book.getId()), Field.Store.YES));
+        document.add(new TextField(TITLE, nullToEmpty(book.getTitle()), Field.Store.YES));
+        document.add(new TextField(AUTHOR, nullToEmpty(book.getAuthor()), Field.Store.YES));
+        document.add(new StringField(ISBN, nullToEmpty(book.getIsbn()).toLowerCase(Locale.ROOT), Field.Store.NO));
+        document.add(new StoredField(ISBN, nullToEmpty(book.getIsbn())));
+        return document;
+    }
+
+    private Book toBook(Document document) {
+        return Book.builder()
+                .id(Long.valueOf(document.get(ID)))
+                .title(document.get(TITLE))
+                .author(document.get(AUTHOR))
+                .isbn(document.get(ISBN))
+                .build();
+    }
+
+    private Query toQuery(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        // todos os termos precisam aparecer no título ou no autor; o último vale como prefixo (busca enquanto digita)
+        List<String> terms = analyze(text);
+        BooleanQuery.Builder words = new BooleanQuery.Builder();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            BooleanQuery.Builder word = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(TITLE, term)), 3f), Occur.SHOULD)
+                    .add(new BoostQuery(new TermQuery(new Term(AUTHOR, term)), 2f), Occur.SHOULD);
+            if (i == terms.size() - 1) {
+                word.add(new PrefixQuery(new Term(TITLE, term)), Occur.SHOULD)
+                        .add(new PrefixQuery(new Term(AUTHOR, term)), Occur.SHOULD);
+            }
+            words.add(word.build(), Occur.MUST);
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(new BoostQuery(new TermQuery(new Term(ISBN, text.trim().toLowerCase(Locale.ROOT))), 10f), Occur.SHOULD);
+        if (!terms.isEmpty()) {
+            query.add(words.build(), Occur.SHOULD);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream tokens = analyzer.tokenStream(TITLE, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                terms.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,269 @@
+package io.github.doflavio.libraryapi.service.search;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.service.search.Suggestion.Field;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.Lookup.LookupResult;
+import org.apache.lucene.search.suggest.fst.WFSTCompletionLookup;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Sugestões de título e autor por prefixo (autocomplete).
+ *
+ * As chaves ficam num FST ponderado do Lucene, compacto e imutável, reconstruído periodicamente.
+ * O que foi gravado depois da última construção fica num mapa ordenado pequeno, consultado junto com o FST.
+ * Cada título é indexado também a partir de cada palavra, então "aven" sugere "As aventuras".
+ */
+@Slf4j
+@Component
+public class BookSuggester {
+
+    private static final char SEPARATOR = '\u001f';
+    // teto do top-N pedido ao FST, seja qual for o size recebido
+    private static final int MAX_CANDIDATES = 1000;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Integer, Entry> entriesById = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    private volatile WFSTCompletionLookup snapshot;
+    private volatile NavigableMap<String, Integer> recent = new ConcurrentSkipListMap<>();
+    private volatile NavigableMap<String, Integer> building = Collections.emptyNavigableMap();
+
+    public void add(Book book) {
+        if (book != null) {
+            increment(Field.TITLE, book.getTitle());
+            increment(Field.AUTHOR, book.getAuthor());
+        }
+    }
+
+    public void remove(Book book) {
+        if (book != null) {
+            decrement(Field.TITLE, book.getTitle());
+            decrement(Field.AUTHOR, book.getAuthor());
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int size) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || size <= 0) {
+            return Collections.emptyList();
+        }
+        // o FST ordena pelo peso da última construção; pede folga e reordena pelo peso atual
+        int candidates = (int) Math.min(size * 4L, MAX_CANDIDATES);
+        Set<Integer> ids = new LinkedHashSet<>();
+        WFSTCompletionLookup lookup = snapshot;
+        if (lookup != null) {
+            try {
+                for (LookupResult result : lookup.lookup(key, false, candidates)) {
+                    String found = result.key.toString();
+                    ids.add(Integer.valueOf(found.substring(found.lastIndexOf(SEPARATOR) + 1)));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        collect(recent, key, candidates, ids);
+        collect(building, key, candidates, ids);
+
+        // ids do FST anterior ou das recentes podem ser de entradas já descartadas na reconstrução
+        return ids.stream()
+                .map(entriesById::get)
+                .filter(entry -> entry != null && entry.weight.get() > 0)
+                .sorted(Comparator.comparingInt((Entry entry) -> entry.weight.get()).reversed()
+                        .thenComparing(entry -> entry.text))
+                .limit(size)
+                .map(entry -> new Suggestion(entry.text, entry.field, entry.weight.get()))
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${application.books.suggest.rebuild-interval-ms}")
+    public void rebuildIfChanged() {
+        if (!recent.isEmpty()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Descarta as entradas que ficaram sem livros, constrói um FST novo com as restantes e troca o atual.
+     */
+    public synchronized void rebuild() {
+        building = recent;
+        recent = new ConcurrentSkipListMap<>();
+
+        // no compute do mapa, atômico com o increment da mesma chave: um livro novo não perde a entrada
+        for (String key : entries.keySet()) {
+            entries.computeIfPresent(key, (k, entry) -> {
+                if (entry.weight.get() > 0) {
+                    return entry;
+                }
+                entriesById.remove(entry.id);
+                return null;
+            });
+        }
+        List<Entry> live = entries.values().stream()
+                .filter(entry -> entry.weight.get() > 0)
+                .collect(Collectors.toList());
+        WFSTCompletionLookup lookup = new WFSTCompletionLookup(new ByteBuffersDirectory(), "suggest", false);
+        try {
+            lookup.build(new EntryKeys(live));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        snapshot = lookup;
+        building = Collections.emptyNavigableMap();
+        log.info(" suggester rebuilt with {} entries, {} bytes ", live.size(), lookup.ramBytesUsed());
+    }
+
+    private void increment(Field field, String text) {
+        if (isBlank(text)) {
+            return;
+        }
+        entries.compute(field + ":" + text, (k, existing) -> {
+            Entry entry = existing;
+            if (entry == null) {
+                entry = new Entry(nextId.incrementAndGet(), text, field);
+                entriesById.put(entry.id, entry);
+            }
+            // voltou a ter livro: as chaves podem não estar no FST atual, então entram nas recentes
+            if (entry.weight.getAndIncrement() == 0) {
+                for (String key : keysOf(entry)) {
+                    recent.put(key + SEPARATOR + entry.id, entry.id);
+                }
+            }
+            return entry;
+        });
+    }
+
+    private void decrement(Field field, String text) {
+        if (isBlank(text)) {
+            return;
+        }
+        Entry entry = entries.get(field + ":" + text);
+        if (entry != null) {
+            entry.weight.updateAndGet(weight -> Math.max(0, weight - 1));
+        }
+    }
+
+    private void collect(NavigableMap<String, Integer> keys, String prefix, int limit, Set<Integer> ids) {
+        Iterator<Integer> found = keys.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().iterator();
+        for (int i = 0; i < limit && found.hasNext(); i++) {
+            ids.add(found.next());
+        }
+    }
+
+    private static List<String> keysOf(Entry entry) {
+        String normalized = normalize(entry.text);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALNUM.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private boolean isBlank(String text) {
+        return text == null || text.trim().isEmpty();
+    }
+
+    private static final class Entry {
+
+        private final int id;
+        private final String text;
+        private final Field field;
+        private final AtomicInteger weight = new AtomicInteger();
+
+        private Entry(int id, String text, Field field) {
+            this.id = id;
+            this.text = text;
+            this.field = field;
+        }
+    }
+
+    /**
+     * Entrega ao FST uma chave por palavra inicial de cada entrada, com o id no fim para manter as chaves únicas.
+     */
+    private static final class EntryKeys implements InputIterator {
+
+        private final Iterator<Entry> entries;
+        private Entry current;
+        private Iterator<String> keys = Collections.emptyIterator();
+
+        private EntryKeys(List<Entry> entries) {
+            this.entries = entries.iterator();
+        }
+
+        @Override
+        public BytesRef next() {
+            while (!keys.hasNext()) {
+                if (!entries.hasNext()) {
+                    return null;
+                }
+                current = entries.next();
+                keys = keysOf(current).iterator();
+            }
+            return new BytesRef(keys.next() + SEPARATOR + current.id);
+        }
+
+        @Override
+        public long weight() {
+            return current.weight.get();
+        }
+
+        @Override
+        public BytesRef payload() {
+            return null;
+        }
+
+        @Override
+        public boolean hasPayloads() {
+            return false;
+        }
+
+        @Override
+        public Set<BytesRef> contexts() {
+            return null;
+        }
+
+        @Override
+        public boolean hasContexts() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.doflavio.libraryapi.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Suggestion {
+
+    public enum Field { TITLE, AUTHOR }
+
+    private String text;
+
+    private Field field;
+
+    // quantidade de livros com esse título ou desse autor
+    private int books;
+}
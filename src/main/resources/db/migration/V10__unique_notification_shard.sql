@@ -0,0 +1,10 @@
+-- Uma noite é dividida uma vez só: se o lease vencer no meio da preparação e outra instância também dividir o
+-- outbox, as duas começam pela mesma faixa e a segunda divisão inteira é desfeita pelo índice único.
+delete from notification_shard s
+    where exists ( select 1 from notification_shard o
+                   where o.run_date = s.run_date and o.from_id = s.from_id and o.id < s.id );
+
+drop index idx_notification_shard_run_date;
+
+-- também atende a consulta por run_date
+create unique index uk_notification_shard_run_from on notification_shard (run_date, from_id);
@@ -0,0 +1,11 @@
+-- existsByIsbn / findByIsbn
+create unique index uk_book_isbn on book (isbn);
+
+-- findByBookIsbnOrCustomer
+create index idx_loan_customer on loan (customer);
+
+-- existsByBookAndNotReturned / findByBook
+create index idx_loan_book_returned on loan (id_book, returned);
+
+-- varredura diária dos empréstimos atrasados
+create index idx_loan_returned_loan_date on loan (returned, loan_date);
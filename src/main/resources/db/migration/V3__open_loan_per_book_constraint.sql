@@ -0,0 +1,5 @@
+-- Um único empréstimo em aberto por livro, garantido pelo banco no próprio insert.
+-- A coluna calculada só tem valor enquanto o empréstimo está aberto e o índice único ignora os nulos.
+alter table loan add column open_book_id bigint as (case when returned then null else id_book end);
+
+create unique index uk_loan_open_book on loan (open_book_id);
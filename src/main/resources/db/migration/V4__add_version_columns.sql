@@ -0,0 +1,4 @@
+-- Versão de cada linha para o @Version do JPA: controla concorrência otimista e alimenta os ETags da API.
+alter table book add column version bigint default 0 not null;
+
+alter table loan add column version bigint default 0 not null;
@@ -0,0 +1,22 @@
+-- Outbox das notificações de empréstimo atrasado: uma linha por empréstimo, gravada na noite em que ele passa do prazo.
+-- sent_at nulo = pendente; o envio grava sent_at depois que o SMTP aceitou a mensagem.
+create table late_loan_notification (
+    id bigint generated by default as identity,
+    id_loan bigint not null,
+    customer_email varchar(255) not null,
+    loan_date date not null,
+    created_at timestamp not null,
+    sent_at timestamp,
+    attempts int default 0 not null,
+    primary key (id),
+    constraint fk_notification_loan foreign key (id_loan) references loan (id)
+);
+
+-- no máximo uma notificação por empréstimo, mesmo que o preenchimento rode duas vezes
+create unique index uk_notification_loan on late_loan_notification (id_loan);
+
+-- marca d'água do preenchimento incremental: max(loan_date) já enfileirado
+create index idx_notification_loan_date on late_loan_notification (loan_date);
+
+-- pendentes, em ordem de id, para o envio em blocos
+create index idx_notification_pending on late_loan_notification (sent_at, id);
@@ -0,0 +1,30 @@
+-- Coordenação das tarefas agendadas entre as instâncias da aplicação.
+
+-- Lease por tarefa: só quem a detém (owner com locked_until no futuro) prepara a execução da noite.
+create table job_lease (
+    name varchar(100) not null,
+    owner varchar(100),
+    locked_until timestamp not null,
+    primary key (name)
+);
+
+insert into job_lease (name, locked_until) values ('late-loans', timestamp '1970-01-01 00:00:00');
+
+-- Faixas de id do outbox de notificações, reivindicadas e enviadas em paralelo pelas instâncias.
+-- checkpoint_id é o último id já processado: quem retoma a faixa de uma instância que caiu continua dali.
+create table notification_shard (
+    id bigint generated by default as identity,
+    run_date date not null,
+    from_id bigint not null,
+    to_id bigint not null,
+    checkpoint_id bigint not null,
+    owner varchar(100),
+    locked_until timestamp,
+    finished boolean default false not null,
+    primary key (id)
+);
+
+create index idx_notification_shard_run_date on notification_shard (run_date);
+
+-- faixas ainda por fazer, para a reivindicação
+create index idx_notification_shard_finished on notification_shard (finished, id);
@@ -0,0 +1,39 @@
+-- Regras de empréstimo: prazo, carência e limite de renovações, por livro ou por cliente.
+-- A regra do livro vale sobre a do cliente; a linha sem livro nem cliente é a padrão.
+create table loan_policy (
+    id bigint generated by default as identity,
+    id_book bigint,
+    customer varchar(100),
+    loan_days int not null,
+    grace_days int default 0 not null,
+    max_renewals int default 0 not null,
+    primary key (id),
+    constraint fk_loan_policy_book foreign key (id_book) references book (id),
+    constraint ck_loan_policy_target check (id_book is null or customer is null)
+);
+
+create unique index uk_loan_policy_book on loan_policy (id_book);
+
+create unique index uk_loan_policy_customer on loan_policy (customer);
+
+-- padrão: atrasado a partir do 4º dia, como era fixo no código
+insert into loan_policy (loan_days, grace_days, max_renewals) values (3, 0, 0);
+
+-- Último dia para devolver (já com a carência), calculado pela regra na criação: atrasado = due_date < hoje.
+alter table loan add column due_date date;
+
+alter table loan add column renewals int default 0 not null;
+
+update loan set due_date = dateadd('DAY', 3, loan_date);
+
+-- varredura dos atrasados, agora pelo prazo em vez da data do empréstimo
+create index idx_loan_returned_due_date on loan (returned, due_date);
+
+drop index idx_loan_returned_loan_date;
+
+-- o outbox passa a seguir o prazo: a marca d'água do preenchimento incremental é o max(due_date) enfileirado
+alter table late_loan_notification alter column loan_date rename to due_date;
+
+update late_loan_notification n set due_date = ( select l.due_date from loan l where l.id = n.id_loan );
+
+alter index idx_notification_loan_date rename to idx_notification_due_date;
@@ -0,0 +1,34 @@
+-- Contadores materializados para o painel (os por cliente vêm em V9, com a tabela customer): mantidos pelo trigger trg_loan_stats a cada insert, update ou delete em
+-- loan (JPA, JDBC em lote e R2DBC passam todos por ele) e conferidos toda noite contra a tabela loan.
+create table book_loan_stats (
+    id_book bigint not null,
+    total_loans bigint default 0 not null,
+    open_loans bigint default 0 not null,
+    primary key (id_book)
+);
+
+-- ranking dos mais emprestados lido direto do índice
+create index idx_book_loan_stats_total on book_loan_stats (total_loans desc);
+
+-- abertos por prazo: em aberto = soma de tudo, atrasados = soma dos prazos antes de hoje. Cada prazo é dividido
+-- em 16 linhas (slot = mod(id do empréstimo, 16)) para que as retiradas do dia não disputem uma única linha.
+create table due_date_loan_stats (
+    due_date date not null,
+    slot int not null,
+    open_loans bigint default 0 not null,
+    primary key (due_date, slot)
+);
+
+insert into book_loan_stats (id_book, total_loans, open_loans)
+    select id_book, count(*), sum(case when returned then 0 else 1 end) from loan
+    where id_book is not null group by id_book;
+
+insert into due_date_loan_stats (due_date, slot, open_loans)
+    select due_date, mod(id, 16), count(*) from loan
+    where returned = false and due_date is not null group by due_date, mod(id, 16);
+
+create trigger trg_loan_stats after insert, update, delete on loan for each row
+    call "io.github.doflavio.libraryapi.model.repository.LoanStatsTrigger";
+
+-- reconciliação noturna roda numa instância só
+insert into job_lease (name, locked_until) values ('loan-stats', timestamp '1970-01-01 00:00:00');
@@ -0,0 +1,85 @@
+-- Cliente normalizado: o e-mail (minúsculo, sem espaços) identifica o cliente; sem e-mail, o nome.
+-- customer e customer_email continuam no empréstimo como foram informados na retirada.
+create table customer (
+    id bigint generated by default as identity,
+    name varchar(100),
+    email varchar(255),
+    primary key (id)
+);
+
+create unique index uk_customer_email on customer (email);
+
+-- clientes sem e-mail são reaproveitados pelo nome
+create index idx_customer_name on customer (name);
+
+insert into customer (name, email)
+    select min(customer), lower(trim(customer_email)) from loan
+    where trim(customer_email) <> '' group by lower(trim(customer_email));
+
+insert into customer (name)
+    select distinct customer from loan
+    where customer is not null and ( customer_email is null or trim(customer_email) = '' );
+
+alter table loan add column id_customer bigint;
+
+alter table loan add constraint fk_loan_customer foreign key (id_customer) references customer (id);
+
+-- contadores do painel por cliente; criados vazios antes do preenchimento de loan.id_customer logo abaixo: o
+-- trigger trg_loan_stats (V8) tira a linha antiga, sem cliente, e soma a nova em cada empréstimo atualizado
+create table customer_loan_stats (
+    id_customer bigint not null,
+    total_loans bigint default 0 not null,
+    open_loans bigint default 0 not null,
+    primary key (id_customer)
+);
+
+create index idx_customer_loan_stats_total on customer_loan_stats (total_loans desc);
+
+update loan l set id_customer = ( select c.id from customer c where c.email = lower(trim(l.customer_email)) )
+    where trim(l.customer_email) <> '';
+
+update loan l set id_customer = ( select c.id from customer c where c.email is null and c.name = l.customer )
+    where l.id_customer is null and l.customer is not null;
+
+-- histórico do cliente em ordem de id (paginação por cursor)
+create index idx_loan_customer_id on loan (id_customer, id);
+
+-- o envio agrupa as notificações pendentes por cliente: um e-mail por cliente, não por empréstimo
+alter table late_loan_notification add column id_customer bigint;
+
+update late_loan_notification n set id_customer = ( select l.id_customer from loan l where l.id = n.id_loan );
+
+create index idx_notification_customer_pending on late_loan_notification (id_customer, sent_at);
+
+-- regras por cliente passam a apontar para o cliente: cada cliente recebe a regra do nome com que retirou
+-- (a de menor id, se usou mais de um); um nome com regra e sem empréstimo vira um cliente sem e-mail
+insert into customer (name)
+    select p.customer from loan_policy p
+    where p.customer is not null and not exists ( select 1 from loan l where l.customer = p.customer );
+
+alter table loan_policy add column id_customer bigint;
+
+insert into loan_policy (id_customer, loan_days, grace_days, max_renewals)
+    select x.id_customer, p.loan_days, p.grace_days, p.max_renewals
+    from ( select m.id_customer, min(m.id_policy) id_policy from (
+               select l.id_customer, p.id id_policy from loan l join loan_policy p on p.customer = l.customer
+               where l.id_customer is not null
+               union
+               select c.id, p.id from customer c join loan_policy p on p.customer = c.name
+               where c.email is null ) m
+           group by m.id_customer ) x
+    join loan_policy p on p.id = x.id_policy;
+
+delete from loan_policy where customer is not null;
+
+drop index uk_loan_policy_customer;
+
+alter table loan_policy drop constraint ck_loan_policy_target;
+
+alter table loan_policy drop column customer;
+
+alter table loan_policy add constraint fk_loan_policy_customer foreign key (id_customer) references customer (id);
+
+alter table loan_policy add constraint ck_loan_policy_target check (id_book is null or id_customer is null);
+
+create unique index uk_loan_policy_customer on loan_policy (id_customer);
@@ -0,0 +1,53 @@
+package io.github.doflavio.libraryapi.api;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CorrelationIdFilterTest {
+
+    CorrelationIdFilter filter = new CorrelationIdFilter();
+
+    @Test
+    @DisplayName("Deve usar o id recebido no cabeçalho durante a requisição e devolvê-lo na resposta")
+    public void propagateCorrelationIdTest() throws Exception {
+        //Cenário
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/1");
+        request.addHeader(CorrelationIdFilter.HEADER, "pedido-123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Map<String, String> mdc = new HashMap<>();
+
+        //Execução
+        filter.doFilter(request, response, (req, res) -> mdc.putAll(MDC.getCopyOfContextMap()));
+
+        //Verificação
+        Assertions.assertThat(mdc)
+                .containsEntry(CorrelationIdFilter.CORRELATION_ID, "pedido-123")
+                .containsEntry(CorrelationIdFilter.HTTP_METHOD, "GET");
+        Assertions.assertThat(response.getHeader(CorrelationIdFilter.HEADER)).isEqualTo("pedido-123");
+        Assertions.assertThat(MDC.get(CorrelationIdFilter.CORRELATION_ID)).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve gerar um novo id quando o cabeçalho não vem ou tem um valor inválido")
+    public void generateCorrelationIdTest() throws Exception {
+        //Cenário
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/books");
+        request.addHeader(CorrelationIdFilter.HEADER, "linha\nforjada");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //Execução
+        filter.doFilter(request, response, (req, res) -> {});
+
+        //Verificação
+        Assertions.assertThat(response.getHeader(CorrelationIdFilter.HEADER))
+                .isNotBlank()
+                .doesNotContain("forjada");
+    }
+}
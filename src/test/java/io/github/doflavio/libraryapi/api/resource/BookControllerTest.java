@@ -5,8 +5,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.doflavio.libraryapi.api.dto.BookDTO;
 import io.github.doflavio.libraryapi.exception.BusinessException;
 import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
 import io.github.doflavio.libraryapi.service.BookService;
 import io.github.doflavio.libraryapi.service.LoanService;
+import io.github.doflavio.libraryapi.service.search.Suggestion;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,7 +22,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -31,7 +35,11 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import javax.print.attribute.standard.Media;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 
 @ExtendWith(SpringExtension.class)
@@ -151,6 +159,25 @@ public class BookControllerTest {
 
     }
 
+    @Test
+    @DisplayName("Deve responder 304 quando o ETag do livro não mudou")
+    public void getBookNotModifiedTest() throws Exception{
+        //Cenário
+        Book book = Book.builder().id(1l).author("Artur").title("As aventuras").isbn("001").version(3l).build();
+        BDDMockito.given(service.getById(1l)).willReturn(Optional.of(book));
+
+        //Execução / Verificação
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-3\""));
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).header(HttpHeaders.IF_NONE_MATCH, "\"1-2\""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(1l));
+    }
+
     @Test@DisplayName("Deve retornar resource not found quando o livro procurado não existir")
     public void bookNotFoundTest() throws Exception{
 
@@ -301,6 +328,236 @@ public class BookControllerTest {
 
     }
 
+    @Test
+    @DisplayName("Deve filtrar livros por cursor, sem total")
+    public void findBookAfterCursorTest() throws Exception{
+
+        //Cenário
+        Book book = Book.builder().id(5l).title("As aventuras").author("Artur").isbn("001").build();
+        BDDMockito.given( service.findAfter(Mockito.any(Book.class), Mockito.eq(0l), Mockito.eq(1)) )
+                .willReturn(new SliceImpl<Book>(Arrays.asList(book), PageRequest.of(0,1), true));
+
+        //Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("?title=As&cursor=&size=1"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Verificação
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk() )
+                .andExpect( MockMvcResultMatchers.jsonPath("content" , Matchers.hasSize(1)))
+                .andExpect( MockMvcResultMatchers.jsonPath("nextCursor" ).value("NQ"))
+                .andExpect( MockMvcResultMatchers.jsonPath("totalElements" ).doesNotExist());
+
+        Mockito.verify(service, Mockito.never()).find(Mockito.any(Book.class), Mockito.any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Deve retornar bad request para cursor inválido")
+    public void findBookInvalidCursorTest() throws Exception{
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("?cursor=@@"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest() )
+                .andExpect( MockMvcResultMatchers.jsonPath("errors[0]" ).value("Invalid cursor"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar bad request para tamanho de página fora do limite na busca por cursor")
+    public void findBookAfterInvalidSizeTest() throws Exception{
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?cursor=&size=0")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest() )
+                .andExpect( MockMvcResultMatchers.jsonPath("errors[0]" ).value("size must be between 1 and 100"));
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?cursor=&size=5000")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest() );
+
+        Mockito.verify(service, Mockito.never()).findAfter(Mockito.any(Book.class), Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Deve listar os empréstimos de um livro")
+    public void loansByBookTest() throws Exception{
+
+        //Cenário
+        Long id = 1l;
+        BDDMockito.given(service.getById(id)).willReturn(Optional.of(Book.builder().id(id).build()));
+
+        LoanSummary loan = new LoanSummary(10l, "Fulano", "fulano@email.com", id, "001", "As aventuras", "Artur", 0l, 0l);
+        BDDMockito.given( loanService.getLoanSummariesByBook(Mockito.eq(id), Mockito.any(Pageable.class)) )
+                .willReturn(new PageImpl<LoanSummary>(Arrays.asList(loan), PageRequest.of(0,10),1));
+
+        //Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("/" + id + "/loans?page=0&size=10"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Verificação
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk() )
+                .andExpect( MockMvcResultMatchers.jsonPath("content" , Matchers.hasSize(1)))
+                .andExpect( MockMvcResultMatchers.jsonPath("content[0].id" ).value(10))
+                .andExpect( MockMvcResultMatchers.jsonPath("content[0].isbn" ).value("001"))
+                .andExpect( MockMvcResultMatchers.jsonPath("content[0].book.id" ).value(1))
+                .andExpect( MockMvcResultMatchers.jsonPath("totalElements" ).value(1));
+    }
+
+    @Test
+    @DisplayName("Deve recusar a atualização quando o If-Match não é a versão atual do livro")
+    public void updateBookPreconditionFailedTest() throws Exception{
+        //Cenário
+        Book book = Book.builder().id(1l).author("Artur").title("As aventuras").isbn("001").version(4l).build();
+        BDDMockito.given(service.getById(1l)).willReturn(Optional.of(book));
+        Book updatedBook = Book.builder().id(1l).author("Artur").title("As aventuras").isbn("001").version(5l).build();
+        BDDMockito.given(service.update(book)).willReturn(updatedBook);
+        String json = new ObjectMapper().writeValueAsString(createNewBookDto());
+
+        //Execução / Verificação
+        mvc.perform(MockMvcRequestBuilders.put(BOOK_API.concat("/1"))
+                .content(json)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"1-3\""))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+        Mockito.verify(service, Mockito.never()).update(Mockito.any(Book.class));
+
+        mvc.perform(MockMvcRequestBuilders.put(BOOK_API.concat("/1"))
+                .content(json)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"1-4\""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-5\""));
+    }
+
+    @Test
+    @DisplayName("Deve buscar livros por texto livre")
+    public void searchBooksTest() throws Exception{
+        //Cenário
+        Book book = Book.builder().id(1l).title("Memórias Póstumas").author("Machado de Assis").isbn("001").build();
+        BDDMockito.given( service.search("memorias", 5) ).willReturn(Arrays.asList(book));
+
+        //Execução/Verificação
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/search?q=memorias&size=5")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].title").value("Memórias Póstumas"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar bad request para busca com tamanho fora do limite")
+    public void searchInvalidSizeTest() throws Exception{
+        //Execução/Verificação
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/search?q=memorias&size=0")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0]").value("size must be between 1 and 100"));
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/search?q=memorias&size=101")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(service, Mockito.never()).search(Mockito.anyString(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Deve sugerir títulos e autores pelo prefixo")
+    public void suggestTest() throws Exception{
+        //Cenário
+        BDDMockito.given( service.suggest("mach", 10) )
+                .willReturn(Arrays.asList(new Suggestion("Machado de Assis", Suggestion.Field.AUTHOR, 3)));
+
+        //Execução/Verificação
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/suggestions?q=mach")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].text").value("Machado de Assis"))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].field").value("AUTHOR"))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].books").value(3));
+    }
+
+    @Test
+    @DisplayName("Deve retornar bad request para sugestões com tamanho fora do limite")
+    public void suggestInvalidSizeTest() throws Exception{
+        //Execução/Verificação
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/suggestions?q=mach&size=0")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0]").value("size must be between 1 and 100"));
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/suggestions?q=mach&size=" + Integer.MAX_VALUE)).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(service, Mockito.never()).suggest(Mockito.anyString(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Deve informar se um livro está disponível para empréstimo")
+    public void availabilityTest() throws Exception{
+        //Cenário
+        BDDMockito.given( service.getExistingIds(Arrays.asList(1l)) ).willReturn(new HashSet<>(Arrays.asList(1l)));
+        BDDMockito.given( loanService.isBookAvailable(1l) ).willReturn(false);
+
+        //Execução/Verificação
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1/availability")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("bookId").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("available").value(false));
+
+        Mockito.verify(service, Mockito.never()).getById(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve retornar resource not found ao consultar a disponibilidade de um livro inexistente")
+    public void availabilityOfInexistentBookTest() throws Exception{
+        //Cenário
+        BDDMockito.given( service.getExistingIds(Arrays.asList(1l)) ).willReturn(Collections.emptySet());
+
+        //Execução/Verificação
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1/availability")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        Mockito.verify(loanService, Mockito.never()).isBookAvailable(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve informar a disponibilidade de vários livros de uma vez")
+    public void batchAvailabilityTest() throws Exception{
+        //Cenário
+        BDDMockito.given( service.getExistingIds(Arrays.asList(1l, 2l)) ).willReturn(new HashSet<>(Arrays.asList(1l, 2l)));
+        BDDMockito.given( loanService.isBookAvailable(1l) ).willReturn(false);
+        BDDMockito.given( loanService.isBookAvailable(2l) ).willReturn(true);
+
+        //Execução/Verificação
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/availability?ids=1,2")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].available").value(false))
+                .andExpect(MockMvcResultMatchers.jsonPath("[1].bookId").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("[1].available").value(true));
+    }
+
+    @Test
+    @DisplayName("Deve retornar resource not found quando algum dos livros consultados não existir")
+    public void batchAvailabilityOfInexistentBookTest() throws Exception{
+        //Cenário
+        BDDMockito.given( service.getExistingIds(Arrays.asList(1l, 2l)) ).willReturn(new HashSet<>(Arrays.asList(1l)));
+
+        //Execução/Verificação
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/availability?ids=1,2")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Deve recusar a consulta de disponibilidade com mais ids que o limite")
+    public void batchAvailabilityTooManyIdsTest() throws Exception{
+        //Cenário
+        String ids = LongStream.rangeClosed(1, 101).mapToObj(String::valueOf).collect(Collectors.joining(","));
+
+        //Execução/Verificação
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/availability?ids=" + ids)).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(service, Mockito.never()).getExistingIds(Mockito.anyCollection());
+    }
+
     private BookDTO createNewBookDto() {
         return BookDTO.builder().author("Artur").title("As aventuras").isbn("001").build();
     }
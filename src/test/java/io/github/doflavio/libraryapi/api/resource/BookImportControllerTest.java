@@ -0,0 +1,123 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.service.BookImportResult;
+import io.github.doflavio.libraryapi.service.BookImportResult.Status;
+import io.github.doflavio.libraryapi.service.BookImportService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = BookImportController.class)
+@AutoConfigureMockMvc
+public class BookImportControllerTest {
+
+    static String IMPORT_API = "/api/books/import";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    BookImportService service;
+
+    @Test
+    @DisplayName("Deve importar livros enviados em NDJSON, uma linha por livro")
+    public void importNdjsonTest() throws Exception {
+        //Cenário
+        List<Book> received = new ArrayList<>();
+        BDDMockito.given(service.importBooks(Mockito.any())).willAnswer(invocation -> {
+            Stream<Book> books = invocation.getArgument(0);
+            received.addAll(books.collect(Collectors.toList()));
+            return resultsFor(received);
+        });
+        String body = "{\"title\":\"As aventuras\",\"author\":\"Fulano\",\"isbn\":\"001\"}\n"
+                + "\n"
+                + "{não é json}\n";
+
+        //Execução
+        mvc.perform(MockMvcRequestBuilders.post(IMPORT_API)
+                .contentType(BookImportController.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(body))
+        //Verificação
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("CREATED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value("INVALID"));
+
+        Assertions.assertThat(received).hasSize(2);
+        Assertions.assertThat(received.get(0).getIsbn()).isEqualTo("001");
+        Assertions.assertThat(received.get(1)).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve importar livros enviados em CSV com cabeçalho")
+    public void importCsvTest() throws Exception {
+        //Cenário
+        List<Book> received = new ArrayList<>();
+        BDDMockito.given(service.importBooks(Mockito.any())).willAnswer(invocation -> {
+            Stream<Book> books = invocation.getArgument(0);
+            received.addAll(books.collect(Collectors.toList()));
+            return resultsFor(received);
+        });
+        String body = "isbn,title,author\n"
+                + "001,\"Aventuras, volume \"\"1\"\"\",Fulano\n"
+                + "002,Memórias,Cicrano\n";
+
+        //Execução
+        mvc.perform(MockMvcRequestBuilders.post(IMPORT_API)
+                .contentType(BookImportController.TEXT_CSV)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(body))
+        //Verificação
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2));
+
+        Assertions.assertThat(received).extracting(Book::getIsbn).containsExactly("001", "002");
+        Assertions.assertThat(received.get(0).getTitle()).isEqualTo("Aventuras, volume \"1\"");
+        Assertions.assertThat(received.get(1).getAuthor()).isEqualTo("Cicrano");
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro quando o CSV não tiver as colunas do livro no cabeçalho")
+    public void importCsvWithoutHeaderTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post(IMPORT_API)
+                .contentType(BookImportController.TEXT_CSV)
+                .content("001,As aventuras,Fulano\n"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(service, Mockito.never()).importBooks(Mockito.any());
+    }
+
+    private List<BookImportResult> resultsFor(List<Book> books) {
+        List<BookImportResult> results = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            results.add(BookImportResult.builder()
+                    .position(i + 1)
+                    .isbn(book == null ? null : book.getIsbn())
+                    .status(book == null ? Status.INVALID : Status.CREATED)
+                    .build());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import io.github.doflavio.libraryapi.model.entity.Customer;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
+import io.github.doflavio.libraryapi.service.CustomerService;
+import io.github.doflavio.libraryapi.service.LoanService;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = CustomerController.class)
+@AutoConfigureMockMvc
+public class CustomerControllerTest {
+
+    static final String CUSTOMER_API = "/api/customers";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    CustomerService customerService;
+
+    @MockBean
+    LoanService loanService;
+
+    @Test
+    @DisplayName("Deve obter o cliente pelo e-mail")
+    public void getByEmailTest() throws Exception{
+        //Cenário
+        BDDMockito.given( customerService.getByEmail("fulano@email.com") )
+                .willReturn(Optional.of(Customer.builder().id(1l).name("Fulano").email("fulano@email.com").build()));
+
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.get(CUSTOMER_API.concat("?email=fulano@email.com")))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("name").value("Fulano"));
+    }
+
+    @Test
+    @DisplayName("Deve listar o histórico de empréstimos do cliente com o cursor da próxima página")
+    public void loansTest() throws Exception{
+        //Cenário
+        BDDMockito.given( customerService.getById(1l) ).willReturn(Optional.of(Customer.builder().id(1l).build()));
+        LoanSummary summary = new LoanSummary(5l, "Fulano", "fulano@email.com", 2l, "123", "As aventuras", "Artur", 0l, 0l);
+        BDDMockito.given( loanService.getLoanSummariesByCustomer(1l, 0l, 1) )
+                .willReturn(new SliceImpl<>(Arrays.asList(summary), PageRequest.of(0, 1), true));
+
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.get(CUSTOMER_API.concat("/1/loans?size=1")))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("content[0].isbn").value("123"))
+                .andExpect(MockMvcResultMatchers.jsonPath("nextCursor").value(Cursors.encode(5l)));
+    }
+
+    @Test
+    @DisplayName("Deve retornar not found para o histórico de cliente inexistente")
+    public void loansCustomerNotFoundTest() throws Exception{
+        //Cenário
+        BDDMockito.given( customerService.getById(1l) ).willReturn(Optional.empty());
+
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.get(CUSTOMER_API.concat("/1/loans")))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        Mockito.verify(loanService, Mockito.never()).getLoanSummariesByCustomer(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Deve recusar o histórico com tamanho de página fora do limite")
+    public void loansInvalidSizeTest() throws Exception{
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.get(CUSTOMER_API.concat("/1/loans?size=0")))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.get(CUSTOMER_API.concat("/1/loans?size=101")))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(loanService, Mockito.never()).getLoanSummariesByCustomer(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyInt());
+    }
+}
@@ -1,13 +1,19 @@
 package io.github.doflavio.libraryapi.api.resource;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.doflavio.libraryapi.api.dto.CheckoutDTO;
+import io.github.doflavio.libraryapi.api.dto.CheckoutLoanDTO;
 import io.github.doflavio.libraryapi.api.dto.LoanDTO;
 import io.github.doflavio.libraryapi.api.dto.LoanFilterDTO;
 import io.github.doflavio.libraryapi.api.dto.ReturnedLoanDTO;
+import io.github.doflavio.libraryapi.api.dto.ReturnedLoansDTO;
 import io.github.doflavio.libraryapi.exception.BusinessException;
 import io.github.doflavio.libraryapi.model.entity.Book;
 import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
 import io.github.doflavio.libraryapi.service.BookService;
+import io.github.doflavio.libraryapi.service.LoanBatchResult;
+import io.github.doflavio.libraryapi.service.LoanBatchService;
 import io.github.doflavio.libraryapi.service.LoanService;
 import io.github.doflavio.libraryapi.service.impl.BookServiceImpl;
 import org.hamcrest.Matchers;
@@ -22,6 +28,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -34,6 +42,8 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -54,6 +64,127 @@ public class LoanControllerTest {
     @MockBean
     private LoanService loanService;
 
+    @MockBean
+    private LoanBatchService loanBatchService;
+
+    @Test
+    @DisplayName("Deve devolver vários livros de uma vez informando os empréstimos que falharam")
+    public void returnBooksTest() throws Exception{
+        //Cenário
+        String json = new ObjectMapper().writeValueAsString(ReturnedLoansDTO.builder().ids(Arrays.asList(1l, 2l)).build());
+        LoanBatchResult result = LoanBatchResult.builder()
+                .succeeded(Arrays.asList(1l))
+                .failed(Arrays.asList(new LoanBatchResult.Failure(2l, null, "Loan not found or already returned")))
+                .build();
+        BDDMockito.given( loanBatchService.returnLoans(Arrays.asList(1l, 2l)) ).willReturn(result);
+
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/returns"))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect( MockMvcResultMatchers.status().isOk())
+                .andExpect( MockMvcResultMatchers.jsonPath("succeeded[0]").value(1))
+                .andExpect( MockMvcResultMatchers.jsonPath("failed[0].id").value(2))
+                .andExpect( MockMvcResultMatchers.jsonPath("failed[0].message").value("Loan not found or already returned"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar erro ao devolver em lote sem informar os empréstimos")
+    public void emptyReturnBooksTest() throws Exception{
+        mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/returns"))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[]}"))
+                .andExpect( MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify( loanBatchService, Mockito.never() ).returnLoans(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Deve realizar vários empréstimos de uma vez pelo isbn")
+    public void checkoutTest() throws Exception{
+        //Cenário
+        CheckoutDTO dto = CheckoutDTO.builder().loans(Arrays.asList(
+                CheckoutLoanDTO.builder().isbn("123").customer("Fulano").email("fulano@email.com").build(),
+                CheckoutLoanDTO.builder().isbn("456").customer("Cicrano").build())).build();
+        String json = new ObjectMapper().writeValueAsString(dto);
+        BDDMockito.given( loanBatchService.checkout(Mockito.anyList()) ).willReturn(LoanBatchResult.builder()
+                .succeeded(Arrays.asList(10l))
+                .failed(Collections.singletonList(new LoanBatchResult.Failure(null, "456", "Book already loaned")))
+                .build());
+
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/checkouts"))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect( MockMvcResultMatchers.status().isOk())
+                .andExpect( MockMvcResultMatchers.jsonPath("succeeded[0]").value(10))
+                .andExpect( MockMvcResultMatchers.jsonPath("failed[0].isbn").value("456"));
+
+        Mockito.verify( loanBatchService ).checkout(Mockito.argThat(loans ->
+                loans.size() == 2
+                        && loans.get(0).getBook().getIsbn().equals("123")
+                        && loans.get(0).getCustomerEmail().equals("fulano@email.com")));
+    }
+
+    @Test
+    @DisplayName("Deve retornar erro ao emprestar em lote sem isbn ou cliente")
+    public void invalidCheckoutTest() throws Exception{
+        //Cenário
+        CheckoutDTO dto = CheckoutDTO.builder().loans(Arrays.asList(
+                CheckoutLoanDTO.builder().isbn("123").customer("Fulano").build(),
+                CheckoutLoanDTO.builder().customer("Cicrano").build())).build();
+        String json = new ObjectMapper().writeValueAsString(dto);
+
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/checkouts"))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect( MockMvcResultMatchers.status().isBadRequest())
+                .andExpect( MockMvcResultMatchers.jsonPath("errors", Matchers.hasSize(1)));
+
+        Mockito.verify( loanBatchService, Mockito.never() ).checkout(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Deve retornar erro ao emprestar em lote acima do limite por requisição")
+    public void oversizedCheckoutTest() throws Exception{
+        //Cenário
+        CheckoutLoanDTO item = CheckoutLoanDTO.builder().isbn("123").customer("Fulano").build();
+        CheckoutDTO dto = CheckoutDTO.builder()
+                .loans(Collections.nCopies(CheckoutDTO.MAX_LOANS + 1, item)).build();
+        String json = new ObjectMapper().writeValueAsString(dto);
+
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/checkouts"))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect( MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify( loanBatchService, Mockito.never() ).checkout(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Deve retornar erro ao devolver em lote acima do limite por requisição")
+    public void oversizedReturnBooksTest() throws Exception{
+        //Cenário
+        String json = new ObjectMapper().writeValueAsString(ReturnedLoansDTO.builder()
+                .ids(Collections.nCopies(ReturnedLoansDTO.MAX_IDS + 1, 1l)).build());
+
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/returns"))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect( MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify( loanBatchService, Mockito.never() ).returnLoans(Mockito.anyList());
+    }
+
     @Test
     @DisplayName("Deve realizar um emprestimo")
     public void createLoanTest() throws Exception{
@@ -172,6 +303,61 @@ public class LoanControllerTest {
        Mockito.verify( loanService, Mockito.times(1) ).update(loan);
     }
 
+    @Test
+    @DisplayName("Deve retornar erro de negócio ao reabrir um empréstimo cujo livro foi emprestado de novo")
+    public void reopenLoanedBookTest() throws Exception{
+        //Cenário { returned:false }
+        ReturnedLoanDTO dto = ReturnedLoanDTO.builder().returned(false).build();
+        Loan loan = Loan.builder().id(1l).returned(true).build();
+
+        BDDMockito.given( loanService.getById(1l) ).willReturn( Optional.of(loan) );
+        BDDMockito.given( loanService.update(loan) ).willThrow( new BusinessException("Book already loaned") );
+
+        String json = new ObjectMapper().writeValueAsString(dto);
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .patch(LOAN_API.concat("/1"))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        //Execução/verificação
+        mvc.perform(request)
+                .andExpect( MockMvcResultMatchers.status().isBadRequest() )
+                .andExpect( MockMvcResultMatchers.jsonPath("errors[0]").value("Book already loaned") );
+    }
+
+    @Test
+    @DisplayName("Deve renovar um empréstimo e devolver o novo prazo")
+    public void renewLoanTest() throws Exception{
+        //Cenário
+        Loan loan = Loan.builder().id(1l).book(Book.builder().id(1l).isbn("123").build())
+                .dueDate(LocalDate.now()).build();
+        Loan renewed = Loan.builder().id(1l).book(loan.getBook()).dueDate(LocalDate.of(2021, 6, 25)).renewals(1).build();
+        BDDMockito.given( loanService.getById(1l) ).willReturn( Optional.of(loan) );
+        BDDMockito.given( loanService.renew(loan) ).willReturn( renewed );
+
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/1/renewals")).accept(MediaType.APPLICATION_JSON))
+                .andExpect( MockMvcResultMatchers.status().isOk() )
+                .andExpect( MockMvcResultMatchers.jsonPath("id").value(1) )
+                .andExpect( MockMvcResultMatchers.jsonPath("dueDate").value("2021-06-25") );
+    }
+
+    @Test
+    @DisplayName("Deve retornar erro de negócio ao renovar além do limite da regra")
+    public void renewLoanLimitTest() throws Exception{
+        //Cenário
+        Loan loan = Loan.builder().id(1l).build();
+        BDDMockito.given( loanService.getById(1l) ).willReturn( Optional.of(loan) );
+        BDDMockito.given( loanService.renew(loan) ).willThrow( new BusinessException("Renewal limit reached") );
+
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/1/renewals")).accept(MediaType.APPLICATION_JSON))
+                .andExpect( MockMvcResultMatchers.status().isBadRequest() )
+                .andExpect( MockMvcResultMatchers.jsonPath("errors[0]").value("Renewal limit reached") );
+    }
+
     @Test
     @DisplayName("Deve retornar 404 quando tentar devolver um livro inexistente")
     public void returnInexistentBookTest() throws Exception{
@@ -197,17 +383,14 @@ public class LoanControllerTest {
         //Cenário
         Long id = 1l;
 
-        Loan loan = createLoan();
-        loan.setId(id);
-        Book bookInLoan = Book.builder().id(1l).isbn("321").build();
-        loan.setBook(bookInLoan);
+        LoanSummary loan = new LoanSummary(id, "Fulano", "fulano@email.com", 1l, "321", "As aventuras", "Artur", 0l, 0l);
 
-        BDDMockito.given( loanService.find(Mockito.any(LoanFilterDTO.class),Mockito.any(Pageable.class)) )
-                .willReturn(new PageImpl<Loan>(Arrays.asList(loan), PageRequest.of(0,10),1));
+        BDDMockito.given( loanService.findSummaries(Mockito.any(LoanFilterDTO.class),Mockito.any(Pageable.class)) )
+                .willReturn(new PageImpl<LoanSummary>(Arrays.asList(loan), PageRequest.of(0,10),1));
 
         // Execução ("api/books?")
         String queryString = String.format("?isbn=%s&customer=%s&page=0&size=10",
-                bookInLoan.getIsbn(),loan.getCustomer());
+                loan.getBookIsbn(),loan.getCustomer());
 
 
         MockHttpServletRequestBuilder request = MockMvcRequestBuilders
@@ -217,12 +400,73 @@ public class LoanControllerTest {
         mvc.perform(request)
                 .andExpect(MockMvcResultMatchers.status().isOk() )
                 .andExpect( MockMvcResultMatchers.jsonPath("content" , Matchers.hasSize(1)))
+                .andExpect( MockMvcResultMatchers.jsonPath("content[0].email" ).value("fulano@email.com"))
+                .andExpect( MockMvcResultMatchers.jsonPath("content[0].book.title" ).value("As aventuras"))
                 .andExpect( MockMvcResultMatchers.jsonPath("totalElements" ).value(1))
                 .andExpect( MockMvcResultMatchers.jsonPath("pageable.pageSize" ).value(10))
                 .andExpect( MockMvcResultMatchers.jsonPath("pageable.pageNumber" ).value(0));
 
     }
 
+    @Test
+    @DisplayName("Deve responder 304 ao filtrar empréstimos quando a página não mudou")
+    public void findLoansNotModifiedTest() throws Exception{
+        //Cenário
+        LoanSummary loan = new LoanSummary(1l, "Fulano", "fulano@email.com", 1l, "321", "As aventuras", "Artur", 0l, 0l);
+        BDDMockito.given( loanService.findSummaries(Mockito.any(LoanFilterDTO.class),Mockito.any(Pageable.class)) )
+                .willReturn(new PageImpl<LoanSummary>(Arrays.asList(loan), PageRequest.of(0,10),1));
+        String etag = mvc.perform(MockMvcRequestBuilders.get(LOAN_API.concat("?customer=Fulano&page=0&size=10")))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //Execução / Verificação
+        mvc.perform(MockMvcRequestBuilders.get(LOAN_API.concat("?customer=Fulano&page=0&size=10"))
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        loan.setBookVersion(1l);
+        mvc.perform(MockMvcRequestBuilders.get(LOAN_API.concat("?customer=Fulano&page=0&size=10"))
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, Matchers.not(etag)));
+    }
+
+    @Test
+    @DisplayName("Deve filtrar empréstimos a partir de um cursor, sem total")
+    public void findLoansAfterCursorTest() throws Exception{
+        //Cenário
+        LoanSummary loan = new LoanSummary(7l, "Fulano", "fulano@email.com", 1l, "321", "As aventuras", "Artur", 0l, 0l);
+
+        BDDMockito.given( loanService.findSummariesAfter(Mockito.any(LoanFilterDTO.class), Mockito.eq(5l), Mockito.eq(10)) )
+                .willReturn(new SliceImpl<LoanSummary>(Arrays.asList(loan), PageRequest.of(0,10), false));
+
+        //Execução
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(LOAN_API.concat("?customer=Fulano&cursor=NQ&size=10"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        //Verificação
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk() )
+                .andExpect( MockMvcResultMatchers.jsonPath("content" , Matchers.hasSize(1)))
+                .andExpect( MockMvcResultMatchers.jsonPath("content[0].id" ).value(7))
+                .andExpect( MockMvcResultMatchers.jsonPath("nextCursor" ).doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Deve retornar bad request para tamanho de página fora do limite na busca por cursor")
+    public void findLoansAfterInvalidSizeTest() throws Exception{
+        //Execução/Verificação
+        mvc.perform(MockMvcRequestBuilders.get(LOAN_API.concat("?cursor=NQ&size=0")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest() );
+        mvc.perform(MockMvcRequestBuilders.get(LOAN_API.concat("?cursor=NQ&size=101")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest() );
+
+        Mockito.verify(loanService, Mockito.never())
+                .findSummariesAfter(Mockito.any(LoanFilterDTO.class), Mockito.anyLong(), Mockito.anyInt());
+    }
+
     public Loan createLoan(){
         Book book = Book.builder().id(1l).build();
         String customer = "Fulano";
@@ -0,0 +1,78 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import io.github.doflavio.libraryapi.model.entity.BookLoanStats;
+import io.github.doflavio.libraryapi.model.entity.CustomerLoanStats;
+import io.github.doflavio.libraryapi.service.LoanStats;
+import io.github.doflavio.libraryapi.service.LoanStatsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = LoanStatsController.class)
+@AutoConfigureMockMvc
+public class LoanStatsControllerTest {
+
+    static final String STATS_API = "/api/stats";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    LoanStatsService loanStatsService;
+
+    @Test
+    @DisplayName("Deve retornar o painel de empréstimos")
+    public void statsTest() throws Exception{
+        //Cenário
+        LoanStats stats = LoanStats.builder().openLoans(5).overdueLoans(2)
+                .topBooks(Arrays.asList(new BookLoanStats(1l, 10l, 1l)))
+                .topCustomers(Arrays.asList(new CustomerLoanStats(7l, 4l, 2l)))
+                .build();
+        BDDMockito.given( loanStatsService.getStats(3) ).willReturn(stats);
+
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.get(STATS_API.concat("?top=3")))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("openLoans").value(5))
+                .andExpect(MockMvcResultMatchers.jsonPath("overdueLoans").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("topBooks[0].bookId").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("topCustomers[0].customerId").value(7));
+    }
+
+    @Test
+    @DisplayName("Deve recusar um ranking maior que o permitido")
+    public void invalidTopTest() throws Exception{
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.get(STATS_API.concat("?top=1000")))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(loanStatsService, Mockito.never()).getStats(Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Deve retornar not found para livro sem empréstimos")
+    public void bookStatsNotFoundTest() throws Exception{
+        //Cenário
+        BDDMockito.given( loanStatsService.getBookStats(1l) ).willReturn(Optional.empty());
+
+        //Execução/verificação
+        mvc.perform(MockMvcRequestBuilders.get(STATS_API.concat("/books/1")))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.doflavio.libraryapi.api.resource;
+
+import io.github.doflavio.libraryapi.api.dto.BookDTO;
+import io.github.doflavio.libraryapi.api.dto.LoanDTO;
+import io.github.doflavio.libraryapi.model.repository.reactive.ReactiveBookRepository;
+import io.github.doflavio.libraryapi.model.repository.reactive.ReactiveLoanRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+@ActiveProfiles({"test", "reactive"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.boot.admin.client.enabled=false")
+public class ReactiveApiRoutesTest {
+
+    static final String BOOK_API = "/api/books";
+    static final String LOAN_API = "/api/loans";
+
+    @Autowired
+    WebTestClient client;
+
+    @Autowired
+    ReactiveBookRepository bookRepository;
+
+    @Autowired
+    ReactiveLoanRepository loanRepository;
+
+    @AfterEach
+    public void tearDown() {
+        loanRepository.deleteAll().then(bookRepository.deleteAll()).block();
+    }
+
+    @Test
+    @DisplayName("Deve criar um livro e devolver 304 quando o ETag informado ainda é o atual")
+    public void createAndGetBookTest() {
+        //Cenário
+        BookDTO created = createBook("123");
+
+        //Execução
+        String etag = client.get().uri(BOOK_API + "/" + created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("title").isEqualTo("As aventuras")
+                .jsonPath("isbn").isEqualTo("123")
+                .returnResult().getResponseHeaders().getETag();
+
+        //Verificação
+        Assertions.assertThat(etag).isEqualTo("\"" + created.getId() + "-0\"");
+        client.get().uri(BOOK_API + "/" + created.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("Deve responder com os mesmos erros do deploy servlet")
+    public void errorsTest() {
+        //Cenário
+        BookDTO created = createBook("123");
+
+        //Execução/Verificação
+        client.post().uri(BOOK_API).bodyValue(BookDTO.builder().build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("errors.length()").isEqualTo(3);
+
+        client.post().uri(BOOK_API).bodyValue(newBook("123"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("errors[0]").isEqualTo("isbn já cadastrado.");
+
+        client.get().uri(BOOK_API + "/999999")
+                .exchange()
+                .expectStatus().isNotFound();
+
+        client.put().uri(BOOK_API + "/" + created.getId())
+                .header(HttpHeaders.IF_MATCH, "\"" + created.getId() + "-7\"")
+                .bodyValue(newBook("123"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    @DisplayName("Deve atualizar o livro incrementando a versão")
+    public void updateBookTest() {
+        //Cenário
+        BookDTO created = createBook("123");
+        BookDTO changed = BookDTO.builder().title("Outro título").author("Outro autor").isbn("123").build();
+
+        //Execução/Verificação
+        client.put().uri(BOOK_API + "/" + created.getId())
+                .header(HttpHeaders.IF_MATCH, "\"" + created.getId() + "-0\"")
+                .bodyValue(changed)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + created.getId() + "-1\"")
+                .expectBody().jsonPath("title").isEqualTo("Outro título");
+    }
+
+    @Test
+    @DisplayName("Deve emprestar o livro uma única vez e listar o empréstimo por livro e por cliente")
+    public void loanTest() {
+        //Cenário
+        BookDTO book = createBook("123");
+        LoanDTO loan = LoanDTO.builder().isbn("123").customer("Fulano").email("customer@email.com").build();
+
+        //Execução
+        Long id = client.post().uri(LOAN_API).bodyValue(loan)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Long.class).returnResult().getResponseBody();
+
+        //Verificação
+        client.post().uri(LOAN_API).bodyValue(loan)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("errors[0]").isEqualTo("Book already loaned");
+
+        client.get().uri(BOOK_API + "/" + book.getId() + "/loans")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("totalElements").isEqualTo(1)
+                .jsonPath("content[0].id").isEqualTo(id)
+                .jsonPath("content[0].book.title").isEqualTo("As aventuras");
+
+        client.get().uri(LOAN_API + "?customer=Fulano&page=0&size=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("totalElements").isEqualTo(1)
+                .jsonPath("content[0].email").isEqualTo("customer@email.com");
+    }
+
+    @Test
+    @DisplayName("Deve transmitir os empréstimos em application/x-ndjson quando o cliente pede")
+    public void streamLoansTest() {
+        //Cenário
+        for (int i = 0; i < 3; i++) {
+            createBook("isbn-" + i);
+            client.post().uri(LOAN_API)
+                    .bodyValue(LoanDTO.builder().isbn("isbn-" + i).customer("Fulano").email("customer@email.com").build())
+                    .exchange()
+                    .expectStatus().isCreated();
+        }
+
+        //Execução
+        List<LoanDTO> loans = client.get().uri(LOAN_API + "?customer=Fulano")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(LoanDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        //Verificação
+        Assertions.assertThat(loans).extracting(LoanDTO::getIsbn).containsExactly("isbn-0", "isbn-1", "isbn-2");
+    }
+
+    private BookDTO createBook(String isbn) {
+        return client.post().uri(BOOK_API).bodyValue(newBook(isbn))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BookDTO.class).returnResult().getResponseBody();
+    }
+
+    private BookDTO newBook(String isbn) {
+        return BookDTO.builder().author("Artur").title("As aventuras").isbn(isbn).build();
+    }
+}
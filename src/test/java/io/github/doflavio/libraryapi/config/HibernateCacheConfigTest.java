@@ -0,0 +1,136 @@
+package io.github.doflavio.libraryapi.config;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import(HibernateCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class HibernateCacheConfigTest {
+
+    @Autowired
+    BookRepository repository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    MeterBinder hibernateCacheMetrics;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void setUp(){
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve ler o livro do cache de segundo nível sem ir à base")
+    public void findByIdFromCacheTest(){
+        //Cenário (insert com id IDENTITY não popula o cache, a primeira leitura sim)
+        Book book = repository.save(createNewBook("123"));
+        repository.findById(book.getId());
+        statistics.clear();
+
+        //Execução
+        repository.findById(book.getId());
+        repository.findById(book.getId());
+
+        //Verificação
+        Assertions.assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.BOOK_REGION).getHitCount())
+                .isEqualTo(2);
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve guardar a busca por isbn e invalidá-la quando livros são inseridos em lote pelo JDBC")
+    public void findByIsbnQueryCacheTest(){
+        //Cenário
+        repository.findByIsbn("999");
+
+        //Execução
+        boolean cachedExists = repository.findByIsbn("999").isPresent();
+        repository.insertBatch(Arrays.asList(createNewBook("999")));
+
+        //Verificação
+        Assertions.assertThat(cachedExists).isFalse();
+        Assertions.assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        Assertions.assertThat(repository.findByIsbn("999")).map(Book::getIsbn).contains("999");
+    }
+
+    @Test
+    @DisplayName("Deve exportar acertos, evicções e memória das regiões do cache")
+    public void cacheMetricsTest(){
+        //Cenário
+        MeterRegistry registry = new SimpleMeterRegistry();
+        hibernateCacheMetrics.bindTo(registry);
+        Book book = repository.save(createNewBook("123"));
+        double hits = bookCacheHits(registry);
+
+        //Execução
+        repository.findById(book.getId());
+        repository.findById(book.getId());
+
+        //Verificação
+        Assertions.assertThat(bookCacheHits(registry) - hits).isEqualTo(1);
+        Assertions.assertThat(registry.get("cache.evictions").tag("cache", HibernateCacheConfig.BOOK_REGION)
+                .functionCounter().count()).isZero();
+        Assertions.assertThat(registry.get("library.cache.memory").tag("cache", HibernateCacheConfig.BOOK_REGION)
+                .gauge().value()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Deve pesar as entradas pelo estado desmontado, crescendo com o texto guardado")
+    public void entryWeigherTest(){
+        //Cenário
+        HibernateCacheConfig.EntryWeigher weigher = new HibernateCacheConfig.EntryWeigher();
+        Object[] shortState = {1l, "123", "Fulano", "As aventuras"};
+        Object[] longState = {1l, "123", "Fulano", "As aventuras de um título bem mais comprido que o outro"};
+
+        //Execução
+        int shortWeight = weigher.weigh(1l, shortState);
+        int longWeight = weigher.weigh(1l, longState);
+
+        //Verificação
+        Assertions.assertThat(shortWeight).isPositive();
+        Assertions.assertThat(longWeight).isGreaterThan(shortWeight);
+    }
+
+    private double bookCacheHits(MeterRegistry registry) {
+        return registry.get("cache.gets").tag("cache", HibernateCacheConfig.BOOK_REGION)
+                .tag("result", "hit").functionCounter().count();
+    }
+
+    private Book createNewBook(String isbn) {
+        return Book.builder().isbn(isbn).author("Fulano").title("As aventuras").build();
+    }
+}
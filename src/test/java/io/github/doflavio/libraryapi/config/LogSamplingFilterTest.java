@@ -0,0 +1,80 @@
+package io.github.doflavio.libraryapi.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import io.github.doflavio.libraryapi.api.CorrelationIdFilter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.stream.IntStream;
+
+public class LogSamplingFilterTest {
+
+    LogSamplingFilter filter;
+    Logger apiLogger;
+
+    @BeforeEach
+    public void setUp() {
+        LoggerContext context = new LoggerContext();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        apiLogger = context.getLogger("io.github.doflavio.libraryapi.api.resource.BookController");
+
+        filter = new LogSamplingFilter();
+        filter.setLogger("io.github.doflavio.libraryapi.api");
+        filter.setRate(10);
+        filter.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    @DisplayName("Deve deixar passar uma a cada N linhas de log de uma mesma mensagem durante um GET")
+    public void sampleReadLogsTest() {
+        //Cenário
+        MDC.put(CorrelationIdFilter.HTTP_METHOD, "GET");
+
+        //Execução
+        long accepted = IntStream.range(0, 100)
+                .mapToObj(i -> filter.decide(null, apiLogger, Level.INFO, " Obtaining details for book id : {} ", null, null))
+                .filter(reply -> reply == FilterReply.NEUTRAL)
+                .count();
+        FilterReply otherMessage = filter.decide(null, apiLogger, Level.INFO, " Deleting book of id : {} ", null, null);
+
+        //Verificação
+        Assertions.assertThat(accepted).isEqualTo(10);
+        Assertions.assertThat(otherMessage).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    @DisplayName("Não deve descartar escritas, avisos nem logs fora dos loggers configurados")
+    public void keepOtherLogsTest() {
+        //Cenário
+        Logger serviceLogger = apiLogger.getLoggerContext().getLogger("io.github.doflavio.libraryapi.service.EmailService");
+        String format = "Mensagem {}";
+
+        //Execução
+        MDC.put(CorrelationIdFilter.HTTP_METHOD, "POST");
+        FilterReply write = filter.decide(null, apiLogger, Level.INFO, format, null, null);
+        FilterReply secondWrite = filter.decide(null, apiLogger, Level.INFO, format, null, null);
+        MDC.put(CorrelationIdFilter.HTTP_METHOD, "GET");
+        filter.decide(null, apiLogger, Level.WARN, format, null, null);
+        FilterReply warn = filter.decide(null, apiLogger, Level.WARN, format, null, null);
+        filter.decide(null, serviceLogger, Level.INFO, format, null, null);
+        FilterReply service = filter.decide(null, serviceLogger, Level.INFO, format, null, null);
+
+        //Verificação
+        Assertions.assertThat(write).isEqualTo(FilterReply.NEUTRAL);
+        Assertions.assertThat(secondWrite).isEqualTo(FilterReply.NEUTRAL);
+        Assertions.assertThat(warn).isEqualTo(FilterReply.NEUTRAL);
+        Assertions.assertThat(service).isEqualTo(FilterReply.NEUTRAL);
+    }
+}
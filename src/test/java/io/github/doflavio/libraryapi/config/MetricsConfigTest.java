@@ -0,0 +1,67 @@
+package io.github.doflavio.libraryapi.config;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.repository.BookRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class MetricsConfigTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    BookRepository repository;
+
+    @AfterEach
+    public void tearDown(){
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve exportar no formato do Prometheus os histogramas por endpoint, por método de serviço e os comandos SQL por requisição")
+    public void prometheusScrapeTest() throws Exception {
+        //Cenário
+        Book book = repository.save(Book.builder().isbn("123").title("As aventuras").author("Fulano").build());
+        mvc.perform(MockMvcRequestBuilders.get("/api/books/" + book.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        //Execução
+        String scrape = mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        //Verificação
+        Assertions.assertThat(lines(scrape, "http_server_requests_seconds_bucket{"))
+                .anyMatch(line -> line.contains("uri=\"/api/books/{id}\""));
+        Assertions.assertThat(lines(scrape, "library_service_seconds_bucket{"))
+                .anyMatch(line -> line.contains("class=\"io.github.doflavio.libraryapi.service.impl.BookServiceImpl\"")
+                        && line.contains("method=\"getById\""));
+        Assertions.assertThat(lines(scrape, "library_db_statements_count{"))
+                .anyMatch(line -> line.contains("uri=\"/api/books/{id}\"") && line.endsWith(" 1.0"));
+    }
+
+    private List<String> lines(String scrape, String prefix) {
+        return Arrays.stream(scrape.split("\n"))
+                .filter(line -> line.startsWith(prefix))
+                .collect(Collectors.toList());
+    }
+}
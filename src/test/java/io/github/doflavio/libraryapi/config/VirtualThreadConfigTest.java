@@ -0,0 +1,61 @@
+package io.github.doflavio.libraryapi.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class VirtualThreadConfigTest {
+
+    @Test
+    @DisplayName("Deve atender as tarefas em virtual threads quando o JDK tem suporte")
+    public void virtualThreadExecutorTest() throws Exception {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21);
+
+        //Execução
+        ExecutorService executor = VirtualThreadConfig.newVirtualThreadPerTaskExecutor();
+        Object virtual = executor.submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread())).get();
+        executor.shutdown();
+
+        //Verificação
+        Assertions.assertThat(virtual).isEqualTo(true);
+    }
+
+    @Test
+    @DisplayName("Deve recusar o modo de virtual threads num JDK sem suporte")
+    public void unsupportedJdkTest() {
+        Assumptions.assumeTrue(Runtime.version().feature() < 21);
+
+        //Execução
+        Throwable exception = Assertions.catchThrowable(VirtualThreadConfig::newVirtualThreadPerTaskExecutor);
+
+        //Verificação
+        Assertions.assertThat(exception)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Java 21");
+    }
+
+    @Test
+    @DisplayName("Deve entregar o executor ao Tomcat e limitar as conexões só no modo de virtual threads")
+    @SuppressWarnings("unchecked")
+    public void protocolHandlerTest() {
+        //Cenário
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Http11NioProtocol protocol = new Http11NioProtocol();
+
+        //Execução
+        ((TomcatProtocolHandlerCustomizer<ProtocolHandler>) new VirtualThreadConfig()
+                .virtualThreadProtocolHandler(executor, 123)).customize(protocol);
+        executor.shutdown();
+
+        //Verificação
+        Assertions.assertThat(protocol.getExecutor()).isSameAs(executor);
+        Assertions.assertThat(protocol.getMaxConnections()).isEqualTo(123);
+    }
+}
@@ -8,11 +8,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.validation.constraints.AssertTrue;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -103,7 +109,55 @@ public class BookRepositoryTest {
 
     }
 
+    @Test
+    @DisplayName("Não deve permitir dois livros com o mesmo isbn")
+    public void uniqueIsbnTest(){
+        //Cenário
+        entityManager.persist(createNewBook("123"));
+
+        //Execução
+        Throwable exception = Assertions.catchThrowable(() -> repository.saveAndFlush(createNewBook("123")));
+
+        //Verificação
+        Assertions.assertThat(exception).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("Deve obter a fatia seguinte de livros pelo id, sem contar o total")
+    public void findSliceAfterTest(){
+        //Cenário
+        Book first = entityManager.persist(Book.builder().isbn("001").author("Fulano").title("As aventuras").build());
+        Book second = entityManager.persist(Book.builder().isbn("002").author("Ciclano").title("As aventuras II").build());
+        entityManager.persist(Book.builder().isbn("003").author("Fulano").title("Memórias").build());
+
+        //Execução
+        Slice<Book> firstSlice = repository.findSliceAfter(0l, "as aven", null, null, PageRequest.of(0, 1));
+        Slice<Book> lastSlice = repository.findSliceAfter(first.getId(), "as aven", null, null, PageRequest.of(0, 1));
+
+        //Verificação
+        Assertions.assertThat(firstSlice.getContent()).containsExactly(first);
+        Assertions.assertThat(firstSlice.hasNext()).isTrue();
+        Assertions.assertThat(lastSlice.getContent()).containsExactly(second);
+        Assertions.assertThat(lastSlice.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve inserir livros em lote e devolver os ids gerados por isbn")
+    public void insertBatchTest(){
+        //Cenário
+        entityManager.persist(createNewBook("001"));
+
+        //Execução
+        Map<String, Long> ids = repository.insertBatch(Arrays.asList(createNewBook("002"), createNewBook("003")));
+        Set<String> existing = repository.findExistingIsbns(Arrays.asList("001", "002", "003", "004"));
+
+        //Verificação
+        Assertions.assertThat(ids).containsOnlyKeys("002", "003");
+        Assertions.assertThat(repository.findById(ids.get("003"))).map(Book::getIsbn).contains("003");
+        Assertions.assertThat(existing).containsExactlyInAnyOrder("001", "002", "003");
+    }
+
     private Book createNewBook(String isbn) {
-        return Book.builder().isbn("123").author("Fulano").title("As aventuras").build();
+        return Book.builder().isbn(isbn).author("Fulano").title("As aventuras").build();
     }
 }
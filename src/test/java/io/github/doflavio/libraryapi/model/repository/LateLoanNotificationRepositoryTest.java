@@ -0,0 +1,109 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.LateLoanNotification;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class LateLoanNotificationRepositoryTest {
+
+    @Autowired
+    private LateLoanNotificationRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Deve enfileirar uma única vez os empréstimos em aberto cujo prazo venceu na faixa de datas")
+    public void enqueueLateLoansTest(){
+        //Cenário
+        Loan late = createAndPersistLoan("123", LocalDate.now().minusDays(5), false);
+        createAndPersistLoan("456", LocalDate.now().minusDays(5), true);
+        createAndPersistLoan("789", LocalDate.now().minusDays(1), false);
+
+        //Execução
+        int first = repository.enqueueLateLoans(LocalDate.EPOCH, LocalDate.now(), LocalDateTime.now());
+        int second = repository.enqueueLateLoans(LocalDate.EPOCH, LocalDate.now(), LocalDateTime.now());
+
+        //Verificação
+        Assertions.assertThat(first).isEqualTo(1);
+        Assertions.assertThat(second).isZero();
+        Assertions.assertThat(repository.findAll())
+                .extracting(LateLoanNotification::getLoanId, LateLoanNotification::getCustomerEmail)
+                .containsExactly(Assertions.tuple(late.getId(), "fulano@email.com"));
+        Assertions.assertThat(repository.findLastDueDate()).isEqualTo(late.getDueDate());
+    }
+
+    @Test
+    @DisplayName("Deve marcar como enviada só a notificação pendente, sem alterar a data do primeiro envio")
+    public void markSentTest(){
+        //Cenário
+        LateLoanNotification sent = createAndPersistNotification("123");
+        LateLoanNotification pending = createAndPersistNotification("456");
+        LocalDateTime firstSend = LocalDateTime.now().minusDays(1).withNano(0);
+        repository.markSent(Collections.singletonList(sent.getId()), firstSend);
+
+        //Execução
+        int marked = repository.markSent(Arrays.asList(sent.getId(), pending.getId()), LocalDateTime.now());
+        entityManager.clear();
+
+        //Verificação
+        Assertions.assertThat(marked).isEqualTo(1);
+        Assertions.assertThat(repository.findById(sent.getId()).get().getSentAt()).isEqualTo(firstSend);
+        Assertions.assertThat(repository.findPendingBetween(0l, Long.MAX_VALUE, 5, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve descartar as notificações pendentes de empréstimos já devolvidos")
+    public void deletePendingOfReturnedLoansTest(){
+        //Cenário
+        LateLoanNotification open = createAndPersistNotification("123");
+        LateLoanNotification returned = createAndPersistNotification("456");
+        Loan loan = entityManager.find(Loan.class, returned.getLoanId());
+        loan.setReturned(true);
+        entityManager.flush();
+
+        //Execução
+        int deleted = repository.deletePendingOfReturnedLoans();
+        List<LateLoanNotification> pending = repository.findPendingBetween(0l, Long.MAX_VALUE, 5, PageRequest.of(0, 10));
+
+        //Verificação
+        Assertions.assertThat(deleted).isEqualTo(1);
+        Assertions.assertThat(pending).extracting(LateLoanNotification::getId).containsExactly(open.getId());
+    }
+
+    private LateLoanNotification createAndPersistNotification(String isbn) {
+        Loan loan = createAndPersistLoan(isbn, LocalDate.now().minusDays(5), false);
+        LateLoanNotification notification = LateLoanNotification.builder().loanId(loan.getId())
+                .customerEmail(loan.getCustomerEmail()).dueDate(loan.getDueDate())
+                .createdAt(LocalDateTime.now()).build();
+        return entityManager.persistAndFlush(notification);
+    }
+
+    private Loan createAndPersistLoan(String isbn, LocalDate loanDate, boolean returned) {
+        Book book = Book.builder().isbn(isbn).author("Fulano").title("As aventuras").build();
+        entityManager.persist(book);
+
+        Loan loan = Loan.builder().book(book).customer("Fulano").customerEmail("fulano@email.com")
+                .loanDate(loanDate).dueDate(loanDate.plusDays(3)).returned(returned).build();
+        return entityManager.persistAndFlush(loan);
+    }
+}
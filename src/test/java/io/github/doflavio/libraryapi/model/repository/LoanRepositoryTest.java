@@ -1,7 +1,12 @@
 package io.github.doflavio.libraryapi.model.repository;
 
 import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.Customer;
 import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.projection.LoanSummary;
+import io.github.doflavio.libraryapi.model.projection.OpenLoan;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.apache.tomcat.jni.Local;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
@@ -13,17 +18,20 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.persistence.EntityManager;
 import javax.validation.constraints.AssertTrue;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 public class LoanRepositoryTest {
 
     @Autowired
@@ -65,13 +73,13 @@ public class LoanRepositoryTest {
     }
 
     @Test
-    @DisplayName("Deve obter empréstimos cuja data empréstimo for menor ou igual a três dias atras e não retornados")
-    public void findByLoanDateLessThanAndReturnedTest(){
+    @DisplayName("Deve obter empréstimos não devolvidos cujo prazo já passou")
+    public void findOverdueTest(){
         //Cenário
         Loan loan = createAndPersitLoan(LocalDate.now().minusDays(5));
 
         //Execução
-        List<Loan> result = repository.findByLoanDateLessThanAndReturned(LocalDate.now().minusDays(4));
+        List<Loan> result = repository.findOverdue(LocalDate.now());
 
         //Vefificação
         Assertions.assertThat(result).hasSize(1).contains(loan);
@@ -79,17 +87,160 @@ public class LoanRepositoryTest {
 
     @Test
     @DisplayName("Deve retornar vazio quando não houver emprestimos atrasados.")
-    public void notfindByLoanDateLessThanAndReturnedTest(){
+    public void notFindOverdueTest(){
         //Cenário
         Loan loan = createAndPersitLoan(LocalDate.now());
 
         //Execução
-        List<Loan> result = repository.findByLoanDateLessThanAndReturned(LocalDate.now().minusDays(4));
+        List<Loan> result = repository.findOverdue(LocalDate.now());
 
         //Vefificação
         Assertions.assertThat(result).isEmpty();
     }
 
+    @Test
+    @DisplayName("Deve listar empréstimos com os dados do livro em uma consulta mais a contagem")
+    public void findSummariesByBookIsbnOrCustomerStatementCountTest(){
+        //Cenário
+        for (int i = 0; i < 5; i++) {
+            Book book = createNewBook("isbn-" + i);
+            entityManager.persist(book);
+            entityManager.persist(Loan.builder().book(book).customer("Fulano").loanDate(LocalDate.now()).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //Execução
+        Page<LoanSummary> result = repository.findSummariesByBookIsbnOrCustomer("none", "Fulano", PageRequest.of(0, 3));
+
+        //Verificação
+        Assertions.assertThat(result.getContent()).hasSize(3);
+        Assertions.assertThat(result.getContent()).allMatch(loan -> loan.getBookTitle().equals("As aventuras"));
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(5);
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve listar os empréstimos de um livro pelo id")
+    public void findSummariesByBookIdTest(){
+        //Cenário
+        Loan loan = createAndPersitLoan(LocalDate.now());
+
+        //Execução
+        Page<LoanSummary> result = repository.findSummariesByBookId(loan.getBook().getId(), PageRequest.of(0, 10));
+
+        //Verificação
+        Assertions.assertThat(result.getContent()).hasSize(1);
+        Assertions.assertThat(result.getContent().get(0).getId()).isEqualTo(loan.getId());
+        Assertions.assertThat(result.getContent().get(0).getBookIsbn()).isEqualTo("123");
+    }
+
+    @Test
+    @DisplayName("Deve marcar como devolvidos apenas os empréstimos em aberto")
+    public void markReturnedTest(){
+        //Cenário
+        Loan open = createAndPersitLoan(LocalDate.now());
+        Book otherBook = createNewBook("456");
+        entityManager.persist(otherBook);
+        Loan returned = Loan.builder().book(otherBook).customer("Cicrano").loanDate(LocalDate.now()).returned(true).build();
+        entityManager.persist(returned);
+
+        //Execução
+        List<OpenLoan> openLoans = repository.findOpenLoansForUpdate(Arrays.asList(open.getId(), returned.getId(), 999l));
+        int updated = repository.markReturned(Arrays.asList(open.getId()));
+        entityManager.clear();
+
+        //Verificação
+        Assertions.assertThat(openLoans).containsExactly(new OpenLoan(open.getId(), open.getBook().getId()));
+        Assertions.assertThat(updated).isEqualTo(1);
+        Assertions.assertThat(repository.findById(open.getId())).map(Loan::getReturned).contains(true);
+        Assertions.assertThat(repository.findById(open.getId())).map(Loan::getVersion).contains(open.getVersion() + 1);
+        Assertions.assertThat(repository.findOpenBookIds(Arrays.asList(open.getBook().getId(), otherBook.getId()))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve inserir empréstimos em lote devolvendo os ids na ordem")
+    public void insertBatchTest(){
+        //Cenário
+        Book book = createNewBook("123");
+        Book otherBook = createNewBook("456");
+        entityManager.persist(book);
+        entityManager.persist(otherBook);
+
+        //Execução
+        List<Long> ids = repository.insertBatch(Arrays.asList(
+                Loan.builder().book(book).customer("Fulano").loanDate(LocalDate.now()).build(),
+                Loan.builder().book(otherBook).customer("Cicrano").loanDate(LocalDate.now()).build()));
+
+        //Verificação
+        Assertions.assertThat(ids).hasSize(2);
+        Assertions.assertThat(repository.findById(ids.get(1))).map(Loan::getCustomer).contains("Cicrano");
+        Assertions.assertThat(repository.findOpenBookIds(Arrays.asList(book.getId(), otherBook.getId())))
+                .containsExactlyInAnyOrder(book.getId(), otherBook.getId());
+    }
+
+    @Test
+    @DisplayName("Deve percorrer os livros com empréstimo em aberto")
+    public void forEachOpenBookIdTest(){
+        //Cenário
+        Loan open = createAndPersitLoan(LocalDate.now());
+        Book otherBook = createNewBook("456");
+        entityManager.persist(otherBook);
+        entityManager.persist(Loan.builder().book(otherBook).customer("Cicrano").loanDate(LocalDate.now()).returned(true).build());
+        entityManager.flush();
+
+        //Execução
+        List<Long> bookIds = new ArrayList<>();
+        repository.forEachOpenBookId(bookIds::add);
+
+        //Verificação
+        Assertions.assertThat(bookIds).containsExactly(open.getBook().getId());
+    }
+
+    @Test
+    @DisplayName("Deve consultar na base se o livro tem empréstimo em aberto")
+    public void hasOpenLoanTest(){
+        //Cenário
+        Loan open = createAndPersitLoan(LocalDate.now());
+        Book otherBook = createNewBook("456");
+        entityManager.persist(otherBook);
+        entityManager.persist(Loan.builder().book(otherBook).customer("Cicrano").loanDate(LocalDate.now()).returned(true).build());
+        entityManager.flush();
+
+        //Execução e Verificação
+        Assertions.assertThat(repository.hasOpenLoan(open.getBook().getId())).isTrue();
+        Assertions.assertThat(repository.hasOpenLoan(otherBook.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve listar o histórico do cliente pelo id em ordem de id a partir do cursor")
+    public void findSummariesByCustomerAfterTest(){
+        //Cenário
+        Customer customer = entityManager.persist(Customer.builder().name("Fulano").email("fulano@email.com").build());
+        List<Long> ids = new ArrayList<>();
+        for (String isbn : Arrays.asList("001", "002", "003")) {
+            Book book = entityManager.persist(createNewBook(isbn));
+            ids.add(entityManager.persist(Loan.builder().book(book).customer("Fulano").customerId(customer.getId())
+                    .loanDate(LocalDate.now()).returned(true).build()).getId());
+        }
+        entityManager.persist(Loan.builder().book(entityManager.persist(createNewBook("004"))).customer("Fulano")
+                .loanDate(LocalDate.now()).build());
+
+        //Execução
+        Slice<LoanSummary> first = repository.findSummariesByCustomerAfter(customer.getId(), 0l, PageRequest.of(0, 2));
+        Slice<LoanSummary> second = repository.findSummariesByCustomerAfter(customer.getId(), ids.get(1), PageRequest.of(0, 2));
+
+        //Verificação
+        Assertions.assertThat(first.getContent()).extracting(LoanSummary::getId).containsExactly(ids.get(0), ids.get(1));
+        Assertions.assertThat(first.hasNext()).isTrue();
+        Assertions.assertThat(second.getContent()).extracting(LoanSummary::getId).containsExactly(ids.get(2));
+        Assertions.assertThat(second.hasNext()).isFalse();
+    }
+
     private Book createNewBook(String isbn) {
         return Book.builder().isbn(isbn).author("Fulano").title("As aventuras").build();
     }
@@ -98,7 +249,7 @@ public class LoanRepositoryTest {
         Book book = createNewBook("123");
         entityManager.persist(book);
 
-        Loan loan = Loan.builder().book(book).customer("Fulano").loanDate(londaDate).build();
+        Loan loan = Loan.builder().book(book).customer("Fulano").loanDate(londaDate).dueDate(londaDate.plusDays(3)).build();
         entityManager.persist(loan);
 
         return loan;
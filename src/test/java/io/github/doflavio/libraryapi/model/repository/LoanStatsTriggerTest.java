@@ -0,0 +1,127 @@
+package io.github.doflavio.libraryapi.model.repository;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.BookLoanStats;
+import io.github.doflavio.libraryapi.model.entity.Customer;
+import io.github.doflavio.libraryapi.model.entity.CustomerLoanStats;
+import io.github.doflavio.libraryapi.model.entity.DueDateLoanStats;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class LoanStatsTriggerTest {
+
+    // longe de hoje para não somar com empréstimos de outros testes
+    private static final LocalDate DUE_DATE = LocalDate.of(2001, 1, 10);
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Deve contar os empréstimos do livro, do cliente e do prazo ao inserir")
+    public void insertTest(){
+        //Cenário
+        Book book = createAndPersistBook("stats-1");
+        Customer customer = createAndPersistCustomer("stats-fulano");
+
+        //Execução
+        loanRepository.saveAll(Arrays.asList(loan(book, customer, false), loan(book, customer, true)));
+        loanRepository.flush();
+        entityManager.clear();
+
+        //Verificação
+        Assertions.assertThat(entityManager.find(BookLoanStats.class, book.getId()))
+                .isEqualTo(new BookLoanStats(book.getId(), 2L, 1L));
+        Assertions.assertThat(entityManager.find(CustomerLoanStats.class, customer.getId()))
+                .isEqualTo(new CustomerLoanStats(customer.getId(), 2L, 1L));
+        Assertions.assertThat(openLoansDueOn(DUE_DATE)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Deve mover os contadores na devolução e na renovação e descontar ao remover")
+    public void updateAndDeleteTest(){
+        //Cenário
+        Book book = createAndPersistBook("stats-2");
+        Customer customer = createAndPersistCustomer("stats-ciclano");
+        Loan returning = loanRepository.saveAndFlush(loan(book, customer, false));
+
+        //Execução
+        returning.setReturned(true);
+        loanRepository.saveAndFlush(returning);
+        Loan renewing = loanRepository.saveAndFlush(loan(book, customer, false));
+        renewing.setDueDate(DUE_DATE.plusDays(3));
+        loanRepository.saveAndFlush(renewing);
+        loanRepository.delete(returning);
+        loanRepository.flush();
+        entityManager.clear();
+
+        //Verificação
+        Assertions.assertThat(entityManager.find(BookLoanStats.class, book.getId()))
+                .isEqualTo(new BookLoanStats(book.getId(), 1L, 1L));
+        Assertions.assertThat(entityManager.find(CustomerLoanStats.class, customer.getId()))
+                .isEqualTo(new CustomerLoanStats(customer.getId(), 1L, 1L));
+        Assertions.assertThat(openLoansDueOn(DUE_DATE)).isZero();
+        Assertions.assertThat(openLoansDueOn(DUE_DATE.plusDays(3))).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Deve dividir os abertos do mesmo prazo entre várias linhas")
+    public void dueDateSlotsTest(){
+        //Cenário
+        Customer customer = createAndPersistCustomer("stats-beltrano");
+        for (int i = 0; i < 4; i++) {
+            loanRepository.save(loan(createAndPersistBook("stats-slot-" + i), customer, false));
+        }
+
+        //Execução
+        loanRepository.flush();
+        entityManager.clear();
+
+        //Verificação
+        List<DueDateLoanStats> rows = entityManager.getEntityManager()
+                .createQuery(" select s from DueDateLoanStats s where s.dueDate = :dueDate ", DueDateLoanStats.class)
+                .setParameter("dueDate", DUE_DATE)
+                .getResultList();
+        Assertions.assertThat(rows).hasSize(4);
+        Assertions.assertThat(openLoansDueOn(DUE_DATE)).isEqualTo(4L);
+    }
+
+    private Loan loan(Book book, Customer customer, boolean returned) {
+        return Loan.builder().book(book).customer(customer.getName()).customerId(customer.getId())
+                .loanDate(DUE_DATE.minusDays(3)).dueDate(DUE_DATE).returned(returned).build();
+    }
+
+    private Customer createAndPersistCustomer(String name) {
+        return entityManager.persist(Customer.builder().name(name).build());
+    }
+
+    private Book createAndPersistBook(String isbn) {
+        return entityManager.persist(Book.builder().isbn(isbn).author("Fulano").title("As aventuras").build());
+    }
+
+    private long openLoansDueOn(LocalDate dueDate) {
+        return jdbcTemplate.queryForObject(
+                " select coalesce(sum(open_loans), 0) from due_date_loan_stats where due_date = ? ", Long.class, dueDate);
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.repository.BookRepository;
+import io.github.doflavio.libraryapi.service.BookImportResult.Status;
+import io.github.doflavio.libraryapi.service.impl.BookImportServiceImpl;
+import io.github.doflavio.libraryapi.service.search.BookSearchIndex;
+import io.github.doflavio.libraryapi.service.search.BookSuggester;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class BookImportServiceTest {
+
+    BookImportService service;
+
+    @MockBean
+    BookRepository repository;
+
+    BookSearchIndex searchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        this.searchIndex = new BookSearchIndex();
+        this.service = new BookImportServiceImpl(repository, searchIndex, new BookSuggester(), 2);
+    }
+
+    @Test
+    @DisplayName("Deve importar os livros em blocos, informando o resultado de cada linha")
+    public void importBooksTest() {
+        //Cenário
+        Mockito.when(repository.findExistingIsbns(Mockito.anyCollection()))
+                .thenReturn(new HashSet<>(Arrays.asList("002")));
+        Mockito.when(repository.insertBatch(Mockito.anyList())).then(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            Map<String, Long> ids = new HashMap<>();
+            books.forEach(book -> ids.put(book.getIsbn(), Long.valueOf(book.getIsbn())));
+            return ids;
+        });
+
+        //Execução
+        List<BookImportResult> results = service.importBooks(Stream.of(
+                createBook("001"), createBook("002"), createBook("003"),
+                createBook("003"), Book.builder().isbn("004").build(), null));
+
+        //Verificação
+        Assertions.assertThat(results).extracting(BookImportResult::getPosition).containsExactly(1l, 2l, 3l, 4l, 5l, 6l);
+        Assertions.assertThat(results).extracting(BookImportResult::getStatus).containsExactly(
+                Status.CREATED, Status.DUPLICATED, Status.CREATED,
+                Status.DUPLICATED, Status.INVALID, Status.INVALID);
+        Assertions.assertThat(results.get(0).getId()).isEqualTo(1l);
+        Assertions.assertThat(results.get(2).getId()).isEqualTo(3l);
+        Mockito.verify(repository, Mockito.times(3)).insertBatch(Mockito.anyList());
+        Assertions.assertThat(searchIndex.search("aventuras", 10)).extracting(Book::getId).containsExactlyInAnyOrder(1l, 3l);
+    }
+
+    @Test
+    @DisplayName("Deve refazer o bloco quando outro cadastro gravar o mesmo isbn durante a importação")
+    public void importBooksConflictTest() {
+        //Cenário
+        Mockito.when(repository.findExistingIsbns(Mockito.anyCollection()))
+                .thenReturn(Collections.emptySet())
+                .thenReturn(new HashSet<>(Arrays.asList("001")));
+        Mockito.when(repository.insertBatch(Mockito.anyList()))
+                .thenThrow(new DuplicateKeyException("uk_book_isbn"))
+                .thenReturn(Collections.singletonMap("002", 2l));
+
+        //Execução
+        List<BookImportResult> results = service.importBooks(Stream.of(createBook("001"), createBook("002")));
+
+        //Verificação
+        Assertions.assertThat(results).extracting(BookImportResult::getStatus)
+                .containsExactly(Status.DUPLICATED, Status.CREATED);
+        Assertions.assertThat(results.get(1).getId()).isEqualTo(2l);
+    }
+
+    private Book createBook(String isbn) {
+        return Book.builder().isbn(isbn).author("Fulano").title("As aventuras").build();
+    }
+}
@@ -4,7 +4,11 @@ import io.github.doflavio.libraryapi.exception.BusinessException;
 import io.github.doflavio.libraryapi.model.entity.Book;
 
 import io.github.doflavio.libraryapi.model.repository.BookRepository;
+import io.github.doflavio.libraryapi.service.cache.BookIsbnCache;
 import io.github.doflavio.libraryapi.service.impl.BookServiceImpl;
+import io.github.doflavio.libraryapi.service.search.BookSearchIndex;
+import io.github.doflavio.libraryapi.service.search.BookSuggester;
+import io.github.doflavio.libraryapi.service.search.Suggestion;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -23,6 +28,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -33,9 +39,18 @@ public class BookServiceTest {
     @MockBean
     BookRepository repository;
 
+    BookIsbnCache isbnCache;
+
+    BookSearchIndex searchIndex;
+
+    BookSuggester suggester;
+
     @BeforeEach
     public void setUp() {
-        this.service = new BookServiceImpl( repository );
+        this.isbnCache = new BookIsbnCache(100);
+        this.searchIndex = new BookSearchIndex();
+        this.suggester = new BookSuggester();
+        this.service = new BookServiceImpl( repository, isbnCache, searchIndex, suggester );
     }
 
     @Test
@@ -81,6 +96,23 @@ public class BookServiceTest {
         Mockito.verify(repository,Mockito.never()).save(book);
     }
 
+    @Test
+    @DisplayName("Deve lançar erro de negócio quando o índice único de isbn rejeitar o insert")
+    public void shouldNotSaveABookWhenUniqueIsbnIsViolated() {
+        //Cenário
+        Book book = createValidBook();
+        Mockito.when( repository.existsByIsbn(Mockito.anyString()) ).thenReturn(false);
+        Mockito.when( repository.save(book) ).thenThrow(new DataIntegrityViolationException("uk_book_isbn"));
+
+        //Execução
+        Throwable exception = Assertions.catchThrowable(() -> service.save(book));
+
+        //verificações
+        Assertions.assertThat(exception)
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("isbn já cadastrado.");
+    }
+
     @Test
     @DisplayName("Deve obter um livro por Id")
     public void getByIdTest(){
@@ -220,8 +252,168 @@ public class BookServiceTest {
         Mockito.verify( repository, Mockito.times(1)).findByIsbn(isbn);
     }
 
+    @Test
+    @DisplayName("Deve obter um livro pelo isbn usando o id em cache")
+    public void getCachedBookByIsbnTest(){
+        //Cenário
+        String isbn = "1230";
+        Book book = Book.builder().id(1l).isbn(isbn).build();
+        Mockito.when(repository.findByIsbn(isbn)).thenReturn(Optional.of(book));
+        Mockito.when(repository.findById(1l)).thenReturn(Optional.of(book));
+
+        //Execução
+        service.getBookByIsbn(isbn);
+        Optional<Book> cachedBook = service.getBookByIsbn(isbn);
+
+        //Verificação
+        Assertions.assertThat(cachedBook).contains(book);
+        Mockito.verify( repository, Mockito.times(1)).findByIsbn(isbn);
+        Mockito.verify( repository, Mockito.times(1)).findById(1l);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar isbn duplicado pelo cache sem consultar a base")
+    public void shouldNotSaveABookWithCachedISBN(){
+        //Cenário
+        Book book = createValidBook();
+        isbnCache.put(book.getIsbn(), 1l);
+
+        //Execução
+        Throwable exception = Assertions.catchThrowable(() -> service.save(book));
+
+        //Verificação
+        Assertions.assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("isbn já cadastrado.");
+        Mockito.verify(repository, Mockito.never()).existsByIsbn(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("Deve invalidar o cache de isbn ao atualizar e deletar um livro")
+    public void evictIsbnCacheOnUpdateAndDeleteTest(){
+        //Cenário
+        Book book = createValidBook();
+        book.setId(1l);
+        isbnCache.put(book.getIsbn(), book.getId());
+
+        //Execução
+        service.update(book);
+
+        //Verificação
+        Assertions.assertThat(isbnCache.contains(book.getIsbn())).isFalse();
+
+        isbnCache.put(book.getIsbn(), book.getId());
+        service.delete(book);
+        Assertions.assertThat(isbnCache.contains(book.getIsbn())).isFalse();
+    }
+
     private Book createValidBook() {
         return Book.builder().isbn("123").author("Fulano").title("As aventuras").build();
     }
 
+    @Test
+    @DisplayName("Deve buscar livros por palavras do título ou autor ignorando acentos")
+    public void searchBookTest(){
+        //Cenário
+        searchIndex.indexAll(Arrays.asList(
+                Book.builder().id(1l).isbn("001").title("Memórias Póstumas de Brás Cubas").author("Machado de Assis").build(),
+                Book.builder().id(2l).isbn("002").title("Dom Casmurro").author("Machado de Assis").build(),
+                Book.builder().id(3l).isbn("003").title("Memorial de Aires").author("Machado de Assis").build(),
+                Book.builder().id(4l).isbn("004").title("Vidas Secas").author("Graciliano Ramos").build()));
+
+        //Execução
+        List<Book> byAccentlessWord = service.search("memorias bras", 10);
+        List<Book> byPrefix = service.search("machado memo", 10);
+        List<Book> byIsbn = service.search("004", 10);
+
+        //Verificação
+        Assertions.assertThat(byAccentlessWord).extracting(Book::getId).containsExactly(1l);
+        Assertions.assertThat(byAccentlessWord.get(0).getTitle()).isEqualTo("Memórias Póstumas de Brás Cubas");
+        Assertions.assertThat(byPrefix).extracting(Book::getId).containsExactlyInAnyOrder(1l, 3l);
+        Assertions.assertThat(byIsbn).extracting(Book::getId).containsExactly(4l);
+    }
+
+    @Test
+    @DisplayName("Deve manter o índice de busca atualizado ao salvar, atualizar e excluir")
+    public void searchIndexFollowsWritesTest(){
+        //Cenário
+        Book book = createValidBook();
+        Book savedBook = Book.builder().id(1l).isbn("123").author("Fulano").title("As aventuras").build();
+        Mockito.when( repository.existsByIsbn("123") ).thenReturn(false);
+        Mockito.when( repository.save(book) ).thenReturn(savedBook);
+
+        //Execução / Verificação
+        service.save(book);
+        Assertions.assertThat(service.search("aventuras", 10)).extracting(Book::getId).containsExactly(1l);
+
+        Book renamed = Book.builder().id(1l).isbn("123").author("Fulano").title("Outras histórias").build();
+        Mockito.when( repository.save(renamed) ).thenReturn(renamed);
+        service.update(renamed);
+        Assertions.assertThat(service.search("aventuras", 10)).isEmpty();
+        Assertions.assertThat(service.search("historias", 10)).extracting(Book::getId).containsExactly(1l);
+
+        service.delete(renamed);
+        Assertions.assertThat(service.search("historias", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve sugerir títulos e autores pelo prefixo, ordenados pela quantidade de livros")
+    public void suggestTest(){
+        //Cenário
+        Mockito.doAnswer(invocation -> {
+            Consumer<Book> consumer = invocation.getArgument(0);
+            consumer.accept(Book.builder().id(1l).isbn("001").title("Memórias Póstumas de Brás Cubas").author("Machado de Assis").build());
+            consumer.accept(Book.builder().id(2l).isbn("002").title("Dom Casmurro").author("Machado de Assis").build());
+            consumer.accept(Book.builder().id(3l).isbn("003").title("Memorial de Aires").author("Machado de Assis").build());
+            consumer.accept(Book.builder().id(4l).isbn("004").title("Vidas Secas").author("Graciliano Ramos").build());
+            return null;
+        }).when(repository).forEachBook(Mockito.any());
+        ((BookServiceImpl) service).rebuildSearchIndex();
+
+        //Execução
+        List<Suggestion> byTitle = service.suggest("memo", 10);
+        List<Suggestion> byAuthor = service.suggest("Mach", 10);
+        List<Suggestion> byInnerWord = service.suggest("bras c", 10);
+        List<Suggestion> limited = service.suggest("m", 2);
+
+        //Verificação
+        Assertions.assertThat(byTitle).extracting(Suggestion::getText)
+                .containsExactly("Memorial de Aires", "Memórias Póstumas de Brás Cubas");
+        Assertions.assertThat(byAuthor).extracting(Suggestion::getText, Suggestion::getField, Suggestion::getBooks)
+                .containsExactly(Assertions.tuple("Machado de Assis", Suggestion.Field.AUTHOR, 3));
+        Assertions.assertThat(byInnerWord).extracting(Suggestion::getText).containsExactly("Memórias Póstumas de Brás Cubas");
+        Assertions.assertThat(limited).hasSize(2);
+        Assertions.assertThat(limited.get(0).getText()).isEqualTo("Machado de Assis");
+        Assertions.assertThat(service.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve manter as sugestões atualizadas ao salvar, atualizar e excluir")
+    public void suggestionsFollowWritesTest(){
+        //Cenário
+        Book book = createValidBook();
+        Book savedBook = Book.builder().id(1l).isbn("123").author("Fulano").title("As aventuras").build();
+        Mockito.when( repository.existsByIsbn("123") ).thenReturn(false);
+        Mockito.when( repository.save(book) ).thenReturn(savedBook);
+
+        //Execução / Verificação
+        service.save(book);
+        Assertions.assertThat(service.suggest("avent", 10)).extracting(Suggestion::getText).containsExactly("As aventuras");
+
+        suggester.rebuild();
+        Book renamed = Book.builder().id(1l).isbn("123").author("Fulano").title("Outras histórias").build();
+        Mockito.when( repository.save(renamed) ).thenReturn(renamed);
+        service.update(renamed);
+        Assertions.assertThat(service.suggest("avent", 10)).isEmpty();
+        Assertions.assertThat(service.suggest("histo", 10)).extracting(Suggestion::getText).containsExactly("Outras histórias");
+        Assertions.assertThat(service.suggest("fula", 10)).extracting(Suggestion::getBooks).containsExactly(1);
+
+        service.delete(renamed);
+        Assertions.assertThat(service.suggest("histo", 10)).isEmpty();
+        Assertions.assertThat(service.suggest("fula", 10)).isEmpty();
+
+        // a reconstrução descarta as entradas sem livros; um livro novo com o mesmo título volta a ser sugerido
+        suggester.rebuild();
+        Assertions.assertThat(service.suggest("histo", 10)).isEmpty();
+        suggester.add(renamed);
+        Assertions.assertThat(service.suggest("histo", 10)).extracting(Suggestion::getBooks).containsExactly(1);
+    }
 }
@@ -0,0 +1,76 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.model.entity.Customer;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.repository.CustomerRepository;
+import io.github.doflavio.libraryapi.service.impl.CustomerServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class CustomerServiceTest {
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    CustomerService service;
+
+    @BeforeEach
+    public void setUp(){
+        this.service = new CustomerServiceImpl(customerRepository);
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar o cliente pelo e-mail normalizado e, sem e-mail, pelo nome")
+    public void resolveTest(){
+        //Execução
+        Customer created = service.resolve("Fulano", " Fulano@Email.com ");
+        Customer sameEmail = service.resolve("Fulano de Tal", "fulano@email.com");
+        Customer withoutEmail = service.resolve("Ciclano", null);
+        Customer sameName = service.resolve("Ciclano", "");
+
+        //Verificação
+        Assertions.assertThat(created.getEmail()).isEqualTo("fulano@email.com");
+        Assertions.assertThat(sameEmail.getId()).isEqualTo(created.getId());
+        Assertions.assertThat(sameName.getId()).isEqualTo(withoutEmail.getId());
+        Assertions.assertThat(service.getByEmail("FULANO@email.com")).contains(created);
+    }
+
+    @Test
+    @DisplayName("Deve atribuir o cliente a cada empréstimo do lote criando só os que não existem")
+    public void assignCustomersTest(){
+        //Cenário
+        Customer existing = entityManager.persist(Customer.builder().name("Fulano").email("fulano@email.com").build());
+        List<Loan> loans = Arrays.asList(
+                Loan.builder().customer("Fulano").customerEmail("FULANO@email.com").build(),
+                Loan.builder().customer("Beltrano").customerEmail("beltrano@email.com").build(),
+                Loan.builder().customer("Beltrano").customerEmail("beltrano@email.com").build(),
+                Loan.builder().build());
+
+        //Execução
+        service.assignCustomers(loans);
+
+        //Verificação
+        Assertions.assertThat(loans.get(0).getCustomerId()).isEqualTo(existing.getId());
+        Assertions.assertThat(loans.get(1).getCustomerId()).isNotNull().isNotEqualTo(existing.getId())
+                .isEqualTo(loans.get(2).getCustomerId());
+        Assertions.assertThat(loans.get(3).getCustomerId()).isNull();
+        Assertions.assertThat(customerRepository.findByEmail("beltrano@email.com")).isPresent();
+    }
+}
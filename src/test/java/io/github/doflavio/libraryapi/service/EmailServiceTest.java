@@ -0,0 +1,144 @@
+package io.github.doflavio.libraryapi.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.github.doflavio.libraryapi.service.impl.EmailServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mockito;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.mail.internet.MimeMessage;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class EmailServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    EmailServiceImpl service;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Deve enviar uma mensagem por destinatário, em lotes")
+    public void sendOneMessagePerRecipientTest() throws Exception {
+        //Cenário
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+        sender.getJavaMailProperties().setProperty("mail.smtp.localhost", "localhost");
+        service = createService(sender);
+
+        List<String> mails = IntStream.range(0, 40)
+                .mapToObj(i -> "customer" + i + "@email.com")
+                .collect(Collectors.toList());
+
+        //Execução
+        MailDispatchReport report = service.sendMails("Devolva o livro", mails);
+
+        //Verificação
+        Assertions.assertThat(report.getSent()).isEqualTo(40);
+        Assertions.assertThat(report.getBatches()).isEqualTo(4);
+        Assertions.assertThat(report.getFailedRecipients()).isEmpty();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        Assertions.assertThat(received).hasSize(40);
+        for (MimeMessage message : received) {
+            Assertions.assertThat(message.getAllRecipients()).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve enviar uma mensagem só e contar uma vez o destinatário repetido")
+    public void duplicatedRecipientTest() {
+        //Cenário
+        JavaMailSender sender = Mockito.mock(JavaMailSender.class);
+        service = createService(sender);
+
+        //Execução
+        MailDispatchReport report = service.sendMails("Devolva o livro",
+                Arrays.asList("a@email.com", "b@email.com", "a@email.com"));
+
+        //Verificação
+        Assertions.assertThat(report.getSent()).isEqualTo(2);
+        Assertions.assertThat(registry.counter("library.mail.sent").count()).isEqualTo(2.0);
+        Mockito.verify(sender).send(Mockito.any(SimpleMailMessage.class), Mockito.any(SimpleMailMessage.class));
+    }
+
+    @Test
+    @DisplayName("Deve reenviar somente as mensagens que falharam")
+    public void retryFailedMessagesTest() {
+        //Cenário
+        JavaMailSender sender = Mockito.mock(JavaMailSender.class);
+        service = createService(sender);
+
+        SimpleMailMessage failedMessage = new SimpleMailMessage();
+        failedMessage.setFrom("mail@library-api.com");
+        failedMessage.setSubject("Livro com empréstimo atrasado");
+        failedMessage.setText("Devolva o livro");
+        failedMessage.setTo("b@email.com");
+
+        Mockito.doThrow(new MailSendException(Collections.singletonMap(failedMessage, new Exception("timeout"))))
+                .doNothing()
+                .when(sender).send(Mockito.<SimpleMailMessage[]>any());
+
+        //Execução
+        MailDispatchReport report = service.sendMails("Devolva o livro", Arrays.asList("a@email.com", "b@email.com"));
+
+        //Verificação
+        Assertions.assertThat(report.getSent()).isEqualTo(2);
+        Assertions.assertThat(report.getFailedRecipients()).isEmpty();
+        Mockito.verify(sender).send(Mockito.any(SimpleMailMessage.class), Mockito.any(SimpleMailMessage.class));
+        Mockito.verify(sender).send(new SimpleMailMessage[]{ failedMessage });
+        Assertions.assertThat(registry.get("library.mail.send").tag("outcome", "failure").timer().count()).isEqualTo(1);
+        Assertions.assertThat(registry.get("library.mail.send").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve informar os destinatários que falharam após esgotar as tentativas")
+    public void reportFailedRecipientsTest() {
+        //Cenário
+        JavaMailSender sender = Mockito.mock(JavaMailSender.class);
+        service = createService(sender);
+
+        Mockito.doThrow(new MailSendException("Mail server connection failed"))
+                .when(sender).send(Mockito.<SimpleMailMessage[]>any());
+
+        //Execução
+        MailDispatchReport report = service.sendMails("Devolva o livro", Arrays.asList("a@email.com"));
+
+        //Verificação
+        Assertions.assertThat(report.getSent()).isZero();
+        Assertions.assertThat(report.getFailedRecipients()).containsExactly("a@email.com");
+        Mockito.verify(sender, Mockito.times(3)).send(Mockito.<SimpleMailMessage[]>any());
+    }
+
+    private EmailServiceImpl createService(JavaMailSender sender) {
+        EmailServiceImpl emailService = new EmailServiceImpl(sender, registry);
+        ReflectionTestUtils.setField(emailService, "remetent", "mail@library-api.com");
+        ReflectionTestUtils.setField(emailService, "batchSize", 10);
+        ReflectionTestUtils.setField(emailService, "workers", 4);
+        ReflectionTestUtils.setField(emailService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(emailService, "retryBackoffMillis", 1L);
+        emailService.init();
+        return emailService;
+    }
+}
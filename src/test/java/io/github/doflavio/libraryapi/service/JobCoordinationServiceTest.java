@@ -0,0 +1,133 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.LateLoanNotification;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.entity.NotificationShard;
+import io.github.doflavio.libraryapi.model.repository.JobLeaseRepository;
+import io.github.doflavio.libraryapi.model.repository.LateLoanNotificationRepository;
+import io.github.doflavio.libraryapi.model.repository.NotificationShardRepository;
+import io.github.doflavio.libraryapi.service.impl.JobCoordinationServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class JobCoordinationServiceTest {
+
+    private static final String JOB = "late-loans";
+
+    @Autowired
+    JobLeaseRepository leaseRepository;
+
+    @Autowired
+    NotificationShardRepository shardRepository;
+
+    @Autowired
+    LateLoanNotificationRepository notificationRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Deve conceder o lease a uma única instância até ele ser liberado")
+    public void leaseTest(){
+        //Cenário
+        JobCoordinationService first = coordination("node-1", 60000);
+        JobCoordinationService second = coordination("node-2", 60000);
+
+        //Execução
+        boolean firstAcquired = first.tryAcquireLease(JOB);
+        boolean secondWhileHeld = second.tryAcquireLease(JOB);
+        boolean firstRenewed = first.tryAcquireLease(JOB);
+        first.releaseLease(JOB);
+        boolean secondAfterRelease = second.tryAcquireLease(JOB);
+
+        //Verificação
+        Assertions.assertThat(firstAcquired).isTrue();
+        Assertions.assertThat(secondWhileHeld).isFalse();
+        Assertions.assertThat(firstRenewed).isTrue();
+        Assertions.assertThat(secondAfterRelease).isTrue();
+        Assertions.assertThat(first.isLeaseHeld(JOB)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve dividir os pendentes em faixas e retomar do checkpoint a faixa de uma instância que parou")
+    public void shardTakeoverTest(){
+        //Cenário
+        for (int i = 0; i < 6; i++) {
+            createAndPersistNotification("isbn-" + i);
+        }
+        // o lock da primeira instância já nasce vencido, como se ela tivesse travado depois do checkpoint
+        JobCoordinationService stalled = coordination("node-1", -1000);
+        JobCoordinationService healthy = coordination("node-2", 60000);
+        LocalDate runDate = LocalDate.now();
+
+        //Execução
+        int created = healthy.createShards(runDate, 5, 3);
+        NotificationShard claimed = stalled.claimShard().get();
+        stalled.checkpoint(claimed, claimed.getFromId());
+        NotificationShard takenOver = healthy.claimShard().get();
+        boolean stalledStillOwns = stalled.checkpoint(claimed, claimed.getToId());
+
+        //Verificação
+        List<NotificationShard> shards = shardRepository.findAll();
+        Assertions.assertThat(created).isEqualTo(3);
+        Assertions.assertThat(shards).extracting(shard -> shard.getToId() - shard.getFromId() + 1)
+                .containsExactly(2l, 2l, 2l);
+        Assertions.assertThat(takenOver.getId()).isEqualTo(claimed.getId());
+        Assertions.assertThat(takenOver.getCheckpointId()).isEqualTo(claimed.getFromId());
+        Assertions.assertThat(takenOver.getOwner()).isEqualTo("node-2");
+        Assertions.assertThat(stalledStillOwns).isFalse();
+        Assertions.assertThat(healthy.hasShards(runDate)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve recusar dividir de novo uma noite já dividida por outra instância")
+    public void duplicateShardsTest(){
+        //Cenário
+        for (int i = 0; i < 4; i++) {
+            createAndPersistNotification("dup-isbn-" + i);
+        }
+        LocalDate runDate = LocalDate.now();
+        JobCoordinationService coordination = coordination("node-1", 60000);
+        // a outra instância já dividiu e terminou a primeira faixa, então ela não conta como em andamento
+        Long firstId = notificationRepository.findFirstPendingId(5);
+        entityManager.persist(NotificationShard.builder().runDate(runDate).fromId(firstId).toId(firstId)
+                .checkpointId(firstId).finished(true).build());
+
+        //Execução
+        Throwable exception = Assertions.catchThrowable(() -> coordination.createShards(runDate, 5, 2));
+
+        //Verificação
+        Assertions.assertThat(exception).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private JobCoordinationService coordination(String nodeId, long leaseMillis) {
+        return new JobCoordinationServiceImpl(leaseRepository, shardRepository, notificationRepository, nodeId, leaseMillis);
+    }
+
+    private void createAndPersistNotification(String isbn) {
+        Book book = Book.builder().isbn(isbn).author("Fulano").title("As aventuras").build();
+        entityManager.persist(book);
+        Loan loan = Loan.builder().book(book).customer("Fulano").customerEmail("fulano@email.com")
+                .loanDate(LocalDate.now().minusDays(5)).dueDate(LocalDate.now().minusDays(2)).build();
+        entityManager.persist(loan);
+        entityManager.persist(LateLoanNotification.builder().loanId(loan.getId())
+                .customerEmail(loan.getCustomerEmail()).dueDate(loan.getDueDate())
+                .createdAt(LocalDateTime.now()).build());
+    }
+}
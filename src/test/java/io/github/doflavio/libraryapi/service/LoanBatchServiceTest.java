@@ -0,0 +1,105 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.projection.OpenLoan;
+import io.github.doflavio.libraryapi.model.repository.BookRepository;
+import io.github.doflavio.libraryapi.model.repository.LoanPolicyRepository;
+import io.github.doflavio.libraryapi.model.repository.LoanRepository;
+import io.github.doflavio.libraryapi.service.cache.LoanPolicyCache;
+import io.github.doflavio.libraryapi.service.cache.OpenLoanIndex;
+import io.github.doflavio.libraryapi.service.impl.LoanBatchServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class LoanBatchServiceTest {
+
+    LoanBatchService service;
+
+    @MockBean
+    LoanRepository loanRepository;
+
+    @MockBean
+    BookRepository bookRepository;
+
+    @MockBean
+    LoanPolicyRepository loanPolicyRepository;
+
+    @MockBean
+    CustomerService customerService;
+
+    OpenLoanIndex openLoanIndex;
+
+    @BeforeEach
+    public void setUp() {
+        this.openLoanIndex = new OpenLoanIndex();
+        this.service = new LoanBatchServiceImpl(loanRepository, bookRepository, openLoanIndex,
+                new LoanPolicyCache(loanPolicyRepository), customerService, 2);
+    }
+
+    @Test
+    @DisplayName("Deve devolver em blocos apenas os empréstimos em aberto")
+    public void returnLoansTest() {
+        //Cenário
+        openLoanIndex.markLoaned(20l);
+        Mockito.when(loanRepository.findOpenLoansForUpdate(Arrays.asList(1l, 2l)))
+                .thenReturn(Arrays.asList(new OpenLoan(1l, 10l), new OpenLoan(2l, 20l)));
+        Mockito.when(loanRepository.findOpenLoansForUpdate(Arrays.asList(3l))).thenReturn(Collections.emptyList());
+
+        //Execução
+        LoanBatchResult result = service.returnLoans(Arrays.asList(1l, 2l, 2l, 3l));
+
+        //Verificação
+        Assertions.assertThat(result.getSucceeded()).containsExactly(1l, 2l);
+        Assertions.assertThat(result.getFailed()).extracting(LoanBatchResult.Failure::getId).containsExactly(3l);
+        Mockito.verify(loanRepository).markReturned(Arrays.asList(1l, 2l));
+        Mockito.verify(loanRepository, Mockito.times(1)).markReturned(Mockito.anyCollection());
+        Assertions.assertThat(openLoanIndex.isLoaned(20l)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve emprestar em lote apenas livros existentes e disponíveis")
+    public void checkoutTest() {
+        //Cenário
+        Map<String, Long> bookIds = new HashMap<>();
+        bookIds.put("123", 1l);
+        bookIds.put("456", 2l);
+        Mockito.when(bookRepository.findIdsByIsbn(Mockito.anyCollection())).thenReturn(bookIds);
+        Mockito.when(loanRepository.findOpenBookIds(Mockito.anyCollection())).thenReturn(Collections.singleton(2l));
+        Mockito.when(loanRepository.insertBatch(Mockito.anyList())).then(invocation -> {
+            List<Loan> loans = invocation.getArgument(0);
+            return loans.isEmpty() ? Collections.emptyList() : Collections.singletonList(10l);
+        });
+
+        //Execução
+        LoanBatchResult result = service.checkout(Arrays.asList(
+                createLoan("123"), createLoan("123"), createLoan("456"), createLoan("789")));
+
+        //Verificação
+        Assertions.assertThat(result.getSucceeded()).containsExactly(10l);
+        Assertions.assertThat(openLoanIndex.isLoaned(1l)).isTrue();
+        Assertions.assertThat(result.getFailed()).extracting(LoanBatchResult.Failure::getMessage).containsExactly(
+                "Book already loaned", "Book already loaned", "Book not found for passed isbn");
+        Mockito.verify(loanRepository).insertBatch(Mockito.argThat((List<Loan> loans) ->
+                loans.size() == 1 && loans.get(0).getBook().getId().equals(1l) && loans.get(0).getLoanDate() != null));
+    }
+
+    private Loan createLoan(String isbn) {
+        return Loan.builder().customer("Fulano").book(Book.builder().isbn(isbn).build()).build();
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.exception.BusinessException;
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.repository.BookRepository;
+import io.github.doflavio.libraryapi.model.repository.LoanRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest
+public class LoanServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @AfterEach
+    public void tearDown() {
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve emprestar o livro uma única vez quando várias requisições chegam ao mesmo tempo")
+    public void concurrentLoansOfSameBookTest() throws Exception {
+        //Cenário
+        Book book = bookRepository.save(Book.builder().isbn("concorrencia").title("As aventuras").author("Fulano").build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger loaned = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        //Execução
+        List<Future<?>> requests = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            String customer = "cliente-" + i;
+            requests.add(executor.submit(() -> {
+                start.await();
+                try {
+                    loanService.save(Loan.builder().book(book).customer(customer).loanDate(LocalDate.now()).build());
+                    loaned.incrementAndGet();
+                } catch (BusinessException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> request : requests) {
+            request.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //Verificação
+        Assertions.assertThat(loaned.get()).isEqualTo(1);
+        Assertions.assertThat(rejected.get()).isEqualTo(THREADS - 1);
+        Assertions.assertThat(loanRepository.count()).isEqualTo(1);
+        Assertions.assertThat(loanService.isBookAvailable(book.getId())).isFalse();
+    }
+}
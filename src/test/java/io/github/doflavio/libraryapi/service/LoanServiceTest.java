@@ -5,7 +5,13 @@ import io.github.doflavio.libraryapi.api.dto.LoanFilterDTO;
 import io.github.doflavio.libraryapi.exception.BusinessException;
 import io.github.doflavio.libraryapi.model.entity.Book;
 import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.entity.LoanPolicy;
+import io.github.doflavio.libraryapi.model.entity.LateLoanNotification;
+import io.github.doflavio.libraryapi.model.repository.LateLoanNotificationRepository;
+import io.github.doflavio.libraryapi.model.repository.LoanPolicyRepository;
 import io.github.doflavio.libraryapi.model.repository.LoanRepository;
+import io.github.doflavio.libraryapi.service.cache.LoanPolicyCache;
+import io.github.doflavio.libraryapi.service.cache.OpenLoanIndex;
 import io.github.doflavio.libraryapi.service.impl.LoanServiceImpl;
 import net.bytebuddy.implementation.bytecode.Throw;
 import org.apache.tomcat.jni.Local;
@@ -16,6 +22,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -25,9 +32,13 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.swing.text.html.Option;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.LongConsumer;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -39,9 +50,25 @@ public class LoanServiceTest {
     @MockBean
     LoanRepository loanRepository;
 
+    @MockBean
+    LateLoanNotificationRepository notificationRepository;
+
+    @MockBean
+    LoanPolicyRepository loanPolicyRepository;
+
+    @MockBean
+    CustomerService customerService;
+
+    OpenLoanIndex openLoanIndex;
+
+    LoanPolicyCache loanPolicyCache;
+
     @BeforeEach
     public void setUp(){
-        this.loanService = new LoanServiceImpl(loanRepository);
+        this.openLoanIndex = new OpenLoanIndex();
+        this.loanPolicyCache = new LoanPolicyCache(loanPolicyRepository);
+        this.loanService = new LoanServiceImpl(loanRepository, openLoanIndex, notificationRepository, loanPolicyCache,
+                customerService);
     }
 
     @Test
@@ -62,8 +89,7 @@ public class LoanServiceTest {
                 .book(book)
                 .build();
 
-        Mockito.when( loanRepository.existsByBookAndNotReturned(book)).thenReturn(false);
-        Mockito.when( loanRepository.save(saving) ).thenReturn(savedLoan);
+        Mockito.when( loanRepository.saveAndFlush(saving) ).thenReturn(savedLoan);
 
         Loan loan = loanService.save(saving);
 
@@ -71,9 +97,76 @@ public class LoanServiceTest {
         Assertions.assertThat( loan.getBook().getId() ).isEqualTo(savedLoan.getBook().getId());
         Assertions.assertThat( loan.getCustomer() ).isEqualTo(savedLoan.getCustomer());
         Assertions.assertThat( loan.getLoanDate() ).isEqualTo(savedLoan.getLoanDate());
+        Assertions.assertThat( loanService.isBookAvailable(book.getId()) ).isFalse();
 
     }
 
+    @Test
+    @DisplayName("Deve calcular o prazo pela regra do livro, que vale sobre a do cliente")
+    public void saveLoanDueDateTest(){
+        //Cenário
+        Mockito.when(loanPolicyRepository.findAll()).thenReturn(new ArrayList<>(Arrays.asList(
+                LoanPolicy.builder().id(1l).loanDays(3).build(),
+                LoanPolicy.builder().id(2l).customerId(10l).loanDays(7).build(),
+                LoanPolicy.builder().id(3l).bookId(1l).loanDays(14).graceDays(2).build())));
+        loanPolicyCache.refresh();
+        Loan bookPolicy = Loan.builder().book(Book.builder().id(1l).build()).customer("Fulano").loanDate(LocalDate.now()).build();
+        Loan customerPolicy = Loan.builder().book(Book.builder().id(2l).build()).customer("Fulano").loanDate(LocalDate.now()).build();
+        Loan defaultPolicy = Loan.builder().book(Book.builder().id(3l).build()).customer("Ciclano").loanDate(LocalDate.now()).build();
+        Mockito.when(loanRepository.saveAndFlush(Mockito.any(Loan.class))).then(invocation -> invocation.getArgument(0));
+        Mockito.doAnswer(invocation -> {
+            List<Loan> loans = invocation.getArgument(0);
+            loans.forEach(loan -> loan.setCustomerId("Fulano".equals(loan.getCustomer()) ? 10l : 20l));
+            return null;
+        }).when(customerService).assignCustomers(Mockito.anyList());
+
+        //Execução
+        loanService.save(bookPolicy);
+        loanService.save(customerPolicy);
+        loanService.save(defaultPolicy);
+
+        //Verificação
+        Assertions.assertThat(bookPolicy.getDueDate()).isEqualTo(LocalDate.now().plusDays(16));
+        Assertions.assertThat(customerPolicy.getDueDate()).isEqualTo(LocalDate.now().plusDays(7));
+        Assertions.assertThat(defaultPolicy.getDueDate()).isEqualTo(LocalDate.now().plusDays(3));
+    }
+
+    @Test
+    @DisplayName("Deve renovar o empréstimo estendendo o prazo até o limite de renovações da regra")
+    public void renewLoanTest(){
+        //Cenário
+        Mockito.when(loanPolicyRepository.findAll()).thenReturn(new ArrayList<>(Arrays.asList(
+                LoanPolicy.builder().id(1l).loanDays(3).maxRenewals(1).build())));
+        loanPolicyCache.refresh();
+        Loan loan = createLoan();
+        loan.setDueDate(LocalDate.now());
+        Mockito.when(loanRepository.save(loan)).thenReturn(loan);
+
+        //Execução
+        Loan renewed = loanService.renew(loan);
+        Throwable exception = Assertions.catchThrowable(() -> loanService.renew(loan));
+
+        //Verificação
+        Assertions.assertThat(renewed.getDueDate()).isEqualTo(LocalDate.now().plusDays(3));
+        Assertions.assertThat(renewed.getRenewals()).isEqualTo(1);
+        Assertions.assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Renewal limit reached");
+    }
+
+    @Test
+    @DisplayName("Não deve renovar um empréstimo atrasado")
+    public void renewOverdueLoanTest(){
+        //Cenário
+        Loan loan = createLoan();
+        loan.setDueDate(LocalDate.now().minusDays(1));
+
+        //Execução
+        Throwable exception = Assertions.catchThrowable(() -> loanService.renew(loan));
+
+        //Verificação
+        Assertions.assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Overdue loan can't be renewed");
+        Mockito.verify(loanRepository, Mockito.never()).save(loan);
+    }
+
     @Test
     @DisplayName("Deve lanlar erro de negócio ao salvar um empréstimo com livro emprestado")
     public  void loanedBookSaveTest(){
@@ -85,7 +178,9 @@ public class LoanServiceTest {
                 .loanDate(LocalDate.now())
                 .build();
 
-        Mockito.when( loanRepository.existsByBookAndNotReturned(book)).thenReturn(true);
+        Mockito.when( loanRepository.saveAndFlush(savingLoan) ).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new RuntimeException("Unique index or primary key violation: \"PUBLIC.UK_LOAN_OPEN_BOOK ON PUBLIC.LOAN(OPEN_BOOK_ID)\"")));
 
         Throwable exception = Assertions.catchThrowable( () -> loanService.save(savingLoan));
 
@@ -93,7 +188,20 @@ public class LoanServiceTest {
                 .isInstanceOf(BusinessException.class)
                 .hasMessage("Book already loaned");
 
-        Mockito.verify( loanRepository, Mockito.never() ).save(savingLoan);
+        Mockito.verify( loanRepository, Mockito.never() ).existsByBookAndNotReturned(book);
+    }
+
+    @Test
+    @DisplayName("Deve propagar violações de integridade que não sejam de empréstimo em aberto")
+    public  void otherIntegrityViolationSaveTest(){
+        Loan savingLoan = createLoan();
+        DataIntegrityViolationException violation = new DataIntegrityViolationException(
+                "could not execute statement", new RuntimeException("Referential integrity constraint violation: FK_LOAN_BOOK"));
+        Mockito.when( loanRepository.saveAndFlush(savingLoan) ).thenThrow(violation);
+
+        Throwable exception = Assertions.catchThrowable( () -> loanService.save(savingLoan));
+
+        Assertions.assertThat( exception ).isSameAs(violation);
     }
 
     @Test
@@ -128,16 +236,39 @@ public class LoanServiceTest {
         loan.setId(id);
         loan.setReturned(true);
 
-        Mockito.when( loanRepository.save(loan)).thenReturn(loan);
+        Mockito.when( loanRepository.saveAndFlush(loan)).thenReturn(loan);
 
         //Execução
         Loan updatedLoan = loanService.update(loan);
 
         Assertions.assertThat( updatedLoan.getReturned()).isTrue();
-        Mockito.verify( loanRepository ).save(loan);
+        Assertions.assertThat( loanService.isBookAvailable(loan.getBook().getId()) ).isTrue();
+        Mockito.verify( loanRepository ).saveAndFlush(loan);
 
     }
 
+    @Test
+    @DisplayName("Deve lançar erro de negócio ao reabrir um empréstimo cujo livro já foi emprestado de novo")
+    public void reopenLoanedBookTest(){
+        //Cenário
+        Loan loan = createLoan();
+        loan.setId(1l);
+        loan.setReturned(false);
+
+        Mockito.when( loanRepository.saveAndFlush(loan) ).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new RuntimeException("Unique index or primary key violation: \"PUBLIC.UK_LOAN_OPEN_BOOK ON PUBLIC.LOAN(OPEN_BOOK_ID)\"")));
+
+        //Execução
+        Throwable exception = Assertions.catchThrowable( () -> loanService.update(loan));
+
+        //Verificação
+        Assertions.assertThat( exception )
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Book already loaned");
+        Assertions.assertThat( openLoanIndex.isLoaned(loan.getBook().getId()) ).isFalse();
+    }
+
     @Test
     @DisplayName("Deve filtrar empréstimos  pelas propriedades")
     public void findLoanTest(){
@@ -165,6 +296,138 @@ public class LoanServiceTest {
         Assertions.assertThat(result.getPageable().getPageSize()).isEqualTo(10);
     }
 
+    @Test
+    @DisplayName("Deve enfileirar só os empréstimos cujo prazo venceu desde o último preenchimento")
+    public void enqueueLateLoanNotificationsTest(){
+        //Cenário
+        LocalDate lastDueDate = LocalDate.now().minusDays(2);
+        Mockito.when(notificationRepository.findLastDueDate()).thenReturn(lastDueDate);
+        Mockito.when(notificationRepository.enqueueLateLoans(
+                Mockito.any(LocalDate.class), Mockito.any(LocalDate.class), Mockito.any(LocalDateTime.class)))
+                .thenReturn(3);
+
+        //Execução
+        int enqueued = loanService.enqueueLateLoanNotifications();
+
+        //Verificação
+        Assertions.assertThat(enqueued).isEqualTo(3);
+        Mockito.verify(notificationRepository).deletePendingOfReturnedLoans();
+        Mockito.verify(notificationRepository).enqueueLateLoans(
+                Mockito.eq(lastDueDate), Mockito.eq(LocalDate.now()), Mockito.any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Deve enviar as notificações pendentes da faixa em blocos pelo id, marcar as enviadas e as que falharam e gravar o checkpoint")
+    public void drainLateLoanNotificationsTest(){
+        //Cenário
+        Mockito.when(notificationRepository.findPendingBetween(
+                Mockito.eq(0l), Mockito.eq(10l), Mockito.eq(5), Mockito.any(PageRequest.class)))
+                .thenReturn(Arrays.asList(notification(1l, "a@email.com"), notification(2l, "b@email.com")));
+        Mockito.when(notificationRepository.findPendingBetween(
+                Mockito.eq(2l), Mockito.eq(10l), Mockito.eq(5), Mockito.any(PageRequest.class)))
+                .thenReturn(Arrays.asList(notification(5l, "c@email.com")));
+
+        //Execução
+        List<List<String>> chunks = new ArrayList<>();
+        List<Long> checkpoints = new ArrayList<>();
+        loanService.drainLateLoanNotifications(0, 10, 2, 5, mailList -> {
+            chunks.add(mailList);
+            return mailList.contains("b@email.com") ? Arrays.asList("b@email.com") : Collections.emptyList();
+        }, checkpoints::add);
+
+        //Verificação
+        Assertions.assertThat(chunks).containsExactly(
+                Arrays.asList("a@email.com", "b@email.com"),
+                Arrays.asList("c@email.com"));
+        Assertions.assertThat(checkpoints).containsExactly(2l, 5l);
+        Mockito.verify(notificationRepository).markSent(Mockito.eq(Arrays.asList(1l)), Mockito.any(LocalDateTime.class));
+        Mockito.verify(notificationRepository).markSent(Mockito.eq(Arrays.asList(5l)), Mockito.any(LocalDateTime.class));
+        Mockito.verify(notificationRepository).markFailed(Arrays.asList(2l));
+    }
+
+    @Test
+    @DisplayName("Deve enviar um único e-mail por cliente e encerrar as demais notificações pendentes dele")
+    public void drainLateLoanNotificationsPerCustomerTest(){
+        //Cenário
+        Mockito.when(notificationRepository.findPendingBetween(
+                Mockito.eq(0l), Mockito.eq(10l), Mockito.eq(5), Mockito.any(PageRequest.class)))
+                .thenReturn(Arrays.asList(notification(1l, 7l, "a@email.com"), notification(2l, 7l, "A@email.com"),
+                        notification(3l, 8l, "b@email.com")));
+
+        //Execução
+        List<List<String>> chunks = new ArrayList<>();
+        loanService.drainLateLoanNotifications(0, 10, 5, 5, mailList -> {
+            chunks.add(mailList);
+            return Arrays.asList("b@email.com");
+        }, lastId -> true);
+
+        //Verificação
+        Assertions.assertThat(chunks).containsExactly(Arrays.asList("a@email.com", "b@email.com"));
+        Mockito.verify(notificationRepository).markSent(Mockito.eq(Arrays.asList(1l, 2l)), Mockito.any(LocalDateTime.class));
+        Mockito.verify(notificationRepository).markSentOfCustomers(Mockito.eq(Collections.singleton(7l)),
+                Mockito.any(LocalDateTime.class));
+        Mockito.verify(notificationRepository).markFailed(Arrays.asList(3l));
+    }
+
+    @Test
+    @DisplayName("Deve parar de enviar a faixa quando o checkpoint indica que outra instância a assumiu")
+    public void drainLateLoanNotificationsLostShardTest(){
+        //Cenário
+        Mockito.when(notificationRepository.findPendingBetween(
+                Mockito.eq(0l), Mockito.eq(10l), Mockito.eq(5), Mockito.any(PageRequest.class)))
+                .thenReturn(Arrays.asList(notification(1l, "a@email.com"), notification(2l, "b@email.com")));
+
+        //Execução
+        List<List<String>> chunks = new ArrayList<>();
+        loanService.drainLateLoanNotifications(0, 10, 2, 5, mailList -> {
+            chunks.add(mailList);
+            return Collections.emptyList();
+        }, lastId -> false);
+
+        //Verificação
+        Assertions.assertThat(chunks).hasSize(1);
+        Mockito.verify(notificationRepository, Mockito.times(1)).findPendingBetween(
+                Mockito.anyLong(), Mockito.anyLong(), Mockito.anyInt(), Mockito.any(PageRequest.class));
+    }
+
+    @Test
+    @DisplayName("Deve reconstruir o índice de empréstimos em aberto a partir da base")
+    public void rebuildOpenLoanIndexTest(){
+        //Cenário
+        openLoanIndex.markLoaned(99l);
+        Mockito.doAnswer(invocation -> {
+            LongConsumer consumer = invocation.getArgument(0);
+            consumer.accept(1l);
+            consumer.accept(2l);
+            return null;
+        }).when(loanRepository).forEachOpenBookId(Mockito.any());
+
+        //Execução
+        ((LoanServiceImpl) loanService).rebuildOpenLoanIndex();
+
+        //Verificação
+        Assertions.assertThat(loanService.isBookAvailable(1l)).isFalse();
+        Assertions.assertThat(loanService.isBookAvailable(2l)).isFalse();
+        Assertions.assertThat(loanService.isBookAvailable(99l)).isTrue();
+        Assertions.assertThat(openLoanIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve confirmar na base um livro livre no índice, que pode ter sido emprestado por outra instância")
+    public void bookLoanedByAnotherInstanceTest(){
+        //Cenário
+        Mockito.when(loanRepository.hasOpenLoan(5l)).thenReturn(true);
+
+        //Execução
+        boolean available = loanService.isBookAvailable(5l);
+
+        //Verificação
+        Assertions.assertThat(available).isFalse();
+        Assertions.assertThat(openLoanIndex.isLoaned(5l)).isTrue();
+        Assertions.assertThat(loanService.isBookAvailable(6l)).isTrue();
+        Mockito.verify(loanRepository).hasOpenLoan(6l);
+    }
+
     public Loan createLoan(){
         Book book = Book.builder().id(1l).build();
         String customer = "Fulano";
@@ -174,4 +437,12 @@ public class LoanServiceTest {
                 .loanDate(LocalDate.now())
                 .build();
     }
+
+    private LateLoanNotification notification(Long id, String email) {
+        return LateLoanNotification.builder().id(id).customerEmail(email).build();
+    }
+
+    private LateLoanNotification notification(Long id, Long customerId, String email) {
+        return LateLoanNotification.builder().id(id).customerId(customerId).customerEmail(email).build();
+    }
 }
@@ -0,0 +1,129 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.model.entity.Book;
+import io.github.doflavio.libraryapi.model.entity.BookLoanStats;
+import io.github.doflavio.libraryapi.model.entity.Customer;
+import io.github.doflavio.libraryapi.model.entity.CustomerLoanStats;
+import io.github.doflavio.libraryapi.model.entity.DueDateLoanStats;
+import io.github.doflavio.libraryapi.model.entity.Loan;
+import io.github.doflavio.libraryapi.model.repository.BookLoanStatsRepository;
+import io.github.doflavio.libraryapi.model.repository.CustomerLoanStatsRepository;
+import io.github.doflavio.libraryapi.model.repository.DueDateLoanStatsRepository;
+import io.github.doflavio.libraryapi.model.repository.LoanStatsReconciler;
+import io.github.doflavio.libraryapi.service.impl.LoanStatsServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class LoanStatsServiceTest {
+
+    @Autowired
+    BookLoanStatsRepository bookStatsRepository;
+
+    @Autowired
+    CustomerLoanStatsRepository customerStatsRepository;
+
+    @Autowired
+    DueDateLoanStatsRepository dueDateStatsRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    LoanStatsService service;
+
+    @BeforeEach
+    public void setUp(){
+        this.service = new LoanStatsServiceImpl(bookStatsRepository, customerStatsRepository, dueDateStatsRepository,
+                new LoanStatsReconciler(jdbcTemplate));
+    }
+
+    @Test
+    @DisplayName("Deve ler do painel os abertos, os atrasados e o livro mais emprestado")
+    public void getStatsTest(){
+        //Cenário
+        LoanStats before = service.getStats(1);
+        Book book = createAndPersistBook("painel-1");
+        Customer customer = createAndPersistCustomer("painel-fulano");
+        for (int i = 0; i < 50; i++) {
+            createAndPersistLoan(book, customer, LocalDate.now().minusDays(1), i > 0);
+        }
+        createAndPersistLoan(createAndPersistBook("painel-1b"), customer, LocalDate.now(), false);
+        entityManager.flush();
+        entityManager.clear();
+
+        //Execução
+        LoanStats stats = service.getStats(1);
+
+        //Verificação
+        Assertions.assertThat(stats.getOpenLoans()).isEqualTo(before.getOpenLoans() + 2);
+        Assertions.assertThat(stats.getOverdueLoans()).isEqualTo(before.getOverdueLoans() + 1);
+        Assertions.assertThat(stats.getTopBooks()).containsExactly(new BookLoanStats(book.getId(), 50L, 1L));
+        Assertions.assertThat(stats.getTopCustomers()).containsExactly(new CustomerLoanStats(customer.getId(), 51L, 2L));
+    }
+
+    @Test
+    @DisplayName("Deve corrigir pela tabela loan os contadores que divergiram")
+    public void reconcileTest(){
+        //Cenário
+        Book book = createAndPersistBook("painel-2");
+        createAndPersistLoan(book, createAndPersistCustomer("painel-ciclano"), LocalDate.now(), false);
+        Customer withoutLoans = createAndPersistCustomer("painel-ninguem");
+        entityManager.flush();
+        service.reconcile();
+        bookStatsRepository.save(new BookLoanStats(book.getId(), 7L, 0L));
+        customerStatsRepository.save(new CustomerLoanStats(withoutLoans.getId(), 3L, 1L));
+        dueDateStatsRepository.save(new DueDateLoanStats(LocalDate.now(), 5, 4L));
+        entityManager.flush();
+        entityManager.clear();
+
+        //Execução
+        int corrected = service.reconcile();
+        entityManager.flush();
+        entityManager.clear();
+
+        //Verificação
+        Assertions.assertThat(corrected).isEqualTo(3);
+        Assertions.assertThat(service.getBookStats(book.getId())).contains(new BookLoanStats(book.getId(), 1L, 1L));
+        Assertions.assertThat(service.getCustomerStats(withoutLoans.getId()))
+                .contains(new CustomerLoanStats(withoutLoans.getId(), 0L, 0L));
+        Assertions.assertThat(openLoansDueOn(LocalDate.now())).isEqualTo(
+                entityManager.getEntityManager()
+                        .createQuery(" select count(l.id) from Loan l where l.returned = false and l.dueDate = :today ", Long.class)
+                        .setParameter("today", LocalDate.now())
+                        .getSingleResult());
+    }
+
+    private Book createAndPersistBook(String isbn) {
+        return entityManager.persist(Book.builder().isbn(isbn).author("Fulano").title("As aventuras").build());
+    }
+
+    private Customer createAndPersistCustomer(String name) {
+        return entityManager.persist(Customer.builder().name(name).build());
+    }
+
+    private void createAndPersistLoan(Book book, Customer customer, LocalDate dueDate, boolean returned) {
+        entityManager.persist(Loan.builder().book(book).customer(customer.getName()).customerId(customer.getId())
+                .loanDate(dueDate.minusDays(3)).dueDate(dueDate).returned(returned).build());
+    }
+
+    private long openLoansDueOn(LocalDate dueDate) {
+        return jdbcTemplate.queryForObject(
+                " select coalesce(sum(open_loans), 0) from due_date_loan_stats where due_date = ? ", Long.class, dueDate);
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.doflavio.libraryapi.service;
+
+import io.github.doflavio.libraryapi.model.entity.NotificationShard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class ScheduleServiceTest {
+
+    private static final String JOB = "late-loans";
+
+    ScheduleService service;
+
+    @MockBean
+    LoanService loanService;
+
+    @MockBean
+    EmailService emailService;
+
+    @MockBean
+    JobCoordinationService coordinationService;
+
+    @MockBean
+    LoanStatsService loanStatsService;
+
+    @BeforeEach
+    public void setUp(){
+        this.service = new ScheduleService(loanService, emailService, coordinationService, loanStatsService);
+        ReflectionTestUtils.setField(service, "message", "Devolva o livro");
+        ReflectionTestUtils.setField(service, "chunkSize", 10);
+        ReflectionTestUtils.setField(service, "maxAttempts", 5);
+        ReflectionTestUtils.setField(service, "shards", 4);
+        ReflectionTestUtils.setField(service, "pollIntervalMillis", 1L);
+        ReflectionTestUtils.setField(service, "prepareAttempts", 3);
+    }
+
+    @Test
+    @DisplayName("Deve enfileirar e dividir uma vez quando obtém o lease, e depois enviar as faixas")
+    public void leaseHolderPreparesOnceTest(){
+        //Cenário
+        NotificationShard shard = shard(1l);
+        Mockito.when(coordinationService.tryAcquireLease(JOB)).thenReturn(true);
+        Mockito.when(loanService.enqueueLateLoanNotifications()).thenReturn(5);
+        Mockito.when(coordinationService.claimShard()).thenReturn(Optional.of(shard), Optional.empty());
+
+        //Execução
+        service.sendMailToLocateLoans();
+
+        //Verificação
+        Mockito.verify(loanService).enqueueLateLoanNotifications();
+        // renovado entre o enfileiramento e a divisão
+        Mockito.verify(coordinationService, Mockito.times(2)).tryAcquireLease(JOB);
+        Mockito.verify(coordinationService).createShards(Mockito.any(LocalDate.class), Mockito.eq(5), Mockito.eq(4));
+        Mockito.verify(coordinationService).releaseLease(JOB);
+        Mockito.verify(loanService).drainLateLoanNotifications(Mockito.eq(0l), Mockito.eq(10l), Mockito.eq(10),
+                Mockito.eq(5), Mockito.any(), Mockito.any());
+        Mockito.verify(coordinationService).finishShard(shard);
+    }
+
+    @Test
+    @DisplayName("Sem o lease, deve esperar as faixas enquanto outra instância prepara e enviar a que aparecer")
+    public void nonHolderPollsUntilShardsAppearTest(){
+        //Cenário
+        NotificationShard shard = shard(1l);
+        Mockito.when(coordinationService.tryAcquireLease(JOB)).thenReturn(false);
+        Mockito.when(coordinationService.claimShard()).thenReturn(Optional.empty(), Optional.empty(),
+                Optional.of(shard), Optional.empty());
+        Mockito.when(coordinationService.isLeaseHeld(JOB)).thenReturn(true, true, false);
+
+        //Execução
+        service.sendMailToLocateLoans();
+
+        //Verificação
+        Mockito.verify(loanService, Mockito.never()).enqueueLateLoanNotifications();
+        Mockito.verify(coordinationService, Mockito.never()).releaseLease(JOB);
+        Mockito.verify(coordinationService, Mockito.times(4)).claimShard();
+        Mockito.verify(coordinationService).finishShard(shard);
+    }
+
+    @Test
+    @DisplayName("Deve tentar de novo a preparação que falhou e desistir depois do limite de tentativas")
+    public void failedPrepareIsRetriedThenGivenUpTest(){
+        //Cenário
+        Mockito.when(coordinationService.tryAcquireLease(JOB)).thenReturn(true);
+        Mockito.when(loanService.enqueueLateLoanNotifications()).thenThrow(new IllegalStateException("banco fora"));
+        Mockito.when(coordinationService.claimShard()).thenReturn(Optional.empty());
+
+        //Execução
+        service.sendMailToLocateLoans();
+
+        //Verificação
+        Mockito.verify(loanService, Mockito.times(3)).enqueueLateLoanNotifications();
+        Mockito.verify(coordinationService, Mockito.never()).createShards(Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+        Mockito.verify(coordinationService).releaseLease(JOB);
+    }
+
+    @Test
+    @DisplayName("Deve deixar a divisão para o novo dono quando perde o lease durante o enfileiramento")
+    public void leaseLostMidPrepareTest(){
+        //Cenário
+        Mockito.when(coordinationService.tryAcquireLease(JOB)).thenReturn(true, false);
+        Mockito.when(loanService.enqueueLateLoanNotifications()).thenReturn(3);
+        Mockito.when(coordinationService.claimShard()).thenReturn(Optional.empty());
+
+        //Execução
+        service.sendMailToLocateLoans();
+
+        //Verificação
+        Mockito.verify(loanService).enqueueLateLoanNotifications();
+        Mockito.verify(coordinationService, Mockito.never()).createShards(Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Não deve tentar de novo quando outra instância já dividiu a noite")
+    public void duplicateSplitTest(){
+        //Cenário
+        Mockito.when(coordinationService.tryAcquireLease(JOB)).thenReturn(true);
+        Mockito.when(coordinationService.createShards(Mockito.any(), Mockito.anyInt(), Mockito.anyInt()))
+                .thenThrow(new DataIntegrityViolationException("uk_notification_shard_run_from"));
+        Mockito.when(coordinationService.claimShard()).thenReturn(Optional.empty());
+
+        //Execução
+        service.sendMailToLocateLoans();
+
+        //Verificação
+        Mockito.verify(loanService).enqueueLateLoanNotifications();
+        Mockito.verify(coordinationService).createShards(Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+        Mockito.verify(coordinationService).releaseLease(JOB);
+    }
+
+    @Test
+    @DisplayName("Deve encerrar quando o lease está livre e não sobram faixas por terminar")
+    public void loopEndsWhenNothingIsLeftTest(){
+        //Cenário
+        Mockito.when(coordinationService.tryAcquireLease(JOB)).thenReturn(false);
+        Mockito.when(coordinationService.claimShard()).thenReturn(Optional.empty());
+        Mockito.when(coordinationService.isLeaseHeld(JOB)).thenReturn(false);
+        Mockito.when(coordinationService.hasUnfinishedShards()).thenReturn(true, false);
+
+        //Execução
+        service.sendMailToLocateLoans();
+
+        //Verificação
+        Mockito.verify(coordinationService, Mockito.times(2)).claimShard();
+        Mockito.verify(coordinationService, Mockito.times(2)).hasUnfinishedShards();
+        Mockito.verify(loanService, Mockito.never()).drainLateLoanNotifications(Mockito.anyLong(), Mockito.anyLong(),
+                Mockito.anyInt(), Mockito.anyInt(), Mockito.any(), Mockito.any());
+    }
+
+    private NotificationShard shard(Long id) {
+        return NotificationShard.builder().id(id).runDate(LocalDate.now()).fromId(1l).toId(10l).checkpointId(0l).build();
+    }
+}